@@ -0,0 +1,70 @@
+package boardgame;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import chess.ChessBoard;
+import chess.Color;
+import chess.pieces.Rook;
+import tictactoe.Player;
+import tictactoe.TicTacToePiece;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardBenchmark {
+
+	private Board board;
+	private Piece piece;
+	private ChessBoard chessBoard;
+	private Rook rook;
+
+	private final Position occupied = new Position(3, 3);
+	private final Position empty = new Position(4, 4);
+
+	@Setup
+	public void setup() {
+		board = new Board(8, 8);
+		board.placePiece(new TicTacToePiece(Player.X, board), occupied);
+		piece = new TicTacToePiece(Player.O, board);
+
+		chessBoard = new ChessBoard();
+		chessBoard.placePiece(new Rook(chessBoard, Color.WHITE), occupied);
+		rook = new Rook(chessBoard, Color.BLACK);
+	}
+
+	@Benchmark
+	public Piece getPiece() {
+		return board.getPiece(occupied);
+	}
+
+	@Benchmark
+	public Piece placeAndRemovePiece() {
+		board.placePiece(piece, empty);
+		return board.removePiece(empty);
+	}
+
+	@Benchmark
+	public Piece chessBoardGetPiece() {
+		return chessBoard.getPiece(occupied);
+	}
+
+	@Benchmark
+	public Piece chessBoardPlaceAndRemovePiece() {
+		chessBoard.placePiece(rook, empty);
+		return chessBoard.removePiece(empty);
+	}
+}
@@ -0,0 +1,103 @@
+package chess;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import chess.bitboard.Bitboards;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChessMatchBenchmark {
+
+	@Param({ "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+			"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1" })
+	private String fen;
+
+	private ChessMatch match;
+	private ChessPosition knightPosition;
+	private ChessPosition replyKnightPosition;
+	private int firstMove;
+	private boolean moved;
+	private ChessPosition moveSource;
+	private ChessPosition moveTarget;
+	private final int[] moves = new int[Move.MAX_MOVES];
+
+	@Setup
+	public void setup() {
+		match = new ChessMatch(fen);
+
+		knightPosition = firstKnight(Color.WHITE);
+
+		match.generateLegalMoves(moves);
+		firstMove = moves[0];
+		moveSource = toChessPosition(Move.from(firstMove));
+		moveTarget = toChessPosition(Move.to(firstMove));
+
+		match.makeMove(firstMove);
+		replyKnightPosition = firstKnight(Color.BLACK);
+		match.undoMove();
+	}
+
+	/**
+	 * Alternates between the position and the one after the first legal move,
+	 * so the legal moves cached by the match never fit and are generated on
+	 * every invocation. Includes the cost of making or taking back that move.
+	 */
+	@Benchmark
+	public boolean[][] getLegalMoves() {
+		if (moved) {
+			match.undoMove();
+		} else {
+			match.makeMove(firstMove);
+		}
+		moved = !moved;
+		return match.getLegalMoves(moved ? replyKnightPosition : knightPosition);
+	}
+
+	/** Same position every time, answered from the cached legal moves. */
+	@Benchmark
+	public boolean[][] getLegalMovesCached() {
+		return match.getLegalMoves(knightPosition);
+	}
+
+	@Benchmark
+	public int generateLegalMoves() {
+		return match.generateLegalMoves(moves);
+	}
+
+	/** Plays the first legal move and takes it back, so every invocation sees the same position. */
+	@Benchmark
+	public ChessPiece performChessMove() {
+		ChessPiece captured = match.performChessMove(moveSource, moveTarget);
+		match.undoMove();
+		return captured;
+	}
+
+	@Benchmark
+	public boolean isKingInCheck() {
+		return match.isKingInCheck(Color.WHITE);
+	}
+
+	private ChessPosition firstKnight(Color color) {
+		return toChessPosition(Bitboards.firstSquare(match.getBitboards().getPieces(color, PieceType.KNIGHT)));
+	}
+
+	private static ChessPosition toChessPosition(int square) {
+		return new ChessPosition((char) ('a' + Bitboards.column(square)), Bitboards.SIZE - Bitboards.row(square));
+	}
+}
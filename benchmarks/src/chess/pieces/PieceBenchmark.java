@@ -0,0 +1,61 @@
+package chess.pieces;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import chess.ChessMatch;
+import chess.ChessPiece;
+import chess.Color;
+import chess.Move;
+import chess.PieceType;
+import chess.bitboard.Bitboards;
+
+/**
+ * Move generation of one white piece of each type in the "Kiwipete"
+ * middlegame position, through the boolean[][] adapter and the packed API.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PieceBenchmark {
+
+	private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+	@Param({ "PAWN", "KNIGHT", "BISHOP", "ROOK", "QUEEN", "KING" })
+	private PieceType type;
+
+	private ChessPiece piece;
+	private final int[] moves = new int[Move.MAX_MOVES];
+
+	@Setup
+	public void setup() {
+		ChessMatch match = new ChessMatch(KIWIPETE);
+		long pieces = match.getBitboards().getPieces(Color.WHITE, type);
+		int square = Bitboards.firstSquare(pieces);
+		piece = match.getPieces()[Bitboards.row(square)][Bitboards.column(square)];
+	}
+
+	@Benchmark
+	public boolean[][] possibleMoves() {
+		return piece.possibleMoves();
+	}
+
+	@Benchmark
+	public int generateMoves() {
+		return piece.generateMoves(moves, 0);
+	}
+}
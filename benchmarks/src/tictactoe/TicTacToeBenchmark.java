@@ -0,0 +1,36 @@
+package tictactoe;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TicTacToeBenchmark {
+
+	// X vence pela coluna a depois de cinco jogadas
+	private final TicTacToePosition[] plays = { new TicTacToePosition('a', 1), new TicTacToePosition('b', 1),
+			new TicTacToePosition('a', 2), new TicTacToePosition('b', 2), new TicTacToePosition('a', 3) };
+
+	/** A fresh match per invocation, played until X wins. */
+	@Benchmark
+	public Player performPlay() {
+		TicTacToeMatch match = new TicTacToeMatch();
+		for (TicTacToePosition play : plays) {
+			match.performPlay(play);
+		}
+		return match.getWinner();
+	}
+}
@@ -1,5 +1,8 @@
 package application;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.InputMismatchException;
 import java.util.List;
@@ -9,6 +12,7 @@ import chess.ChessMatch;
 import chess.ChessPiece;
 import chess.ChessPosition;
 import chess.exceptions.ChessException;
+import chess.uci.UciEngine;
 import chess.ui.ChessUI;
 import tictactoe.TicTacToeMatch;
 import tictactoe.TicTacToePosition;
@@ -17,7 +21,13 @@ import tictactoe.ui.TicTacToeUI;
 
 public class Program {
 
-	public static void main(String[] args) {
+	public static void main(String[] args) throws IOException {
+
+		// Modo sem interface para GUIs e torneios: java application.Program --uci
+		if (args.length > 0 && args[0].equals("--uci")) {
+			new UciEngine(new BufferedReader(new InputStreamReader(System.in)), System.out).run();
+			return;
+		}
 
 		Scanner sc = new Scanner(System.in);
 
@@ -0,0 +1,73 @@
+package chess;
+
+import java.util.Arrays;
+
+import chess.bitboard.BitboardPosition;
+import chess.bitboard.Bitboards;
+
+/**
+ * Castling rights packed into the low four bits of an int.
+ */
+public final class CastlingRights {
+
+	public static final int NONE = 0;
+	public static final int WHITE_KINGSIDE = 1;
+	public static final int WHITE_QUEENSIDE = 2;
+	public static final int BLACK_KINGSIDE = 4;
+	public static final int BLACK_QUEENSIDE = 8;
+	public static final int ALL = WHITE_KINGSIDE | WHITE_QUEENSIDE | BLACK_KINGSIDE | BLACK_QUEENSIDE;
+
+	public static final int WHITE_KING_SQUARE = Bitboards.square(7, 4);
+	public static final int BLACK_KING_SQUARE = Bitboards.square(0, 4);
+	public static final int WHITE_KINGSIDE_ROOK_SQUARE = Bitboards.square(7, 7);
+	public static final int WHITE_QUEENSIDE_ROOK_SQUARE = Bitboards.square(7, 0);
+	public static final int BLACK_KINGSIDE_ROOK_SQUARE = Bitboards.square(0, 7);
+	public static final int BLACK_QUEENSIDE_ROOK_SQUARE = Bitboards.square(0, 0);
+
+	// Direitos que sobrevivem quando uma peça sai ou chega em cada casa
+	private static final int[] KEPT_RIGHTS = new int[Bitboards.SQUARES];
+
+	static {
+		Arrays.fill(KEPT_RIGHTS, ALL);
+		KEPT_RIGHTS[WHITE_KING_SQUARE] = ALL & ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+		KEPT_RIGHTS[WHITE_KINGSIDE_ROOK_SQUARE] = ALL & ~WHITE_KINGSIDE;
+		KEPT_RIGHTS[WHITE_QUEENSIDE_ROOK_SQUARE] = ALL & ~WHITE_QUEENSIDE;
+		KEPT_RIGHTS[BLACK_KING_SQUARE] = ALL & ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+		KEPT_RIGHTS[BLACK_KINGSIDE_ROOK_SQUARE] = ALL & ~BLACK_KINGSIDE;
+		KEPT_RIGHTS[BLACK_QUEENSIDE_ROOK_SQUARE] = ALL & ~BLACK_QUEENSIDE;
+	}
+
+	private CastlingRights() {
+	}
+
+	public static int kingside(Color color) {
+		return color == Color.WHITE ? WHITE_KINGSIDE : BLACK_KINGSIDE;
+	}
+
+	public static int queenside(Color color) {
+		return color == Color.WHITE ? WHITE_QUEENSIDE : BLACK_QUEENSIDE;
+	}
+
+	/** Rights left after a move from {@code source} to {@code target}. */
+	public static int afterMove(int rights, int source, int target) {
+		return rights & KEPT_RIGHTS[source] & KEPT_RIGHTS[target];
+	}
+
+	/** Rights that the placement allows: king and rook still on their initial squares. */
+	public static int supportedBy(BitboardPosition bitboards) {
+		int rights = NONE;
+		long whiteKing = bitboards.getPieces(Color.WHITE, PieceType.KING);
+		long whiteRooks = bitboards.getPieces(Color.WHITE, PieceType.ROOK);
+		long blackKing = bitboards.getPieces(Color.BLACK, PieceType.KING);
+		long blackRooks = bitboards.getPieces(Color.BLACK, PieceType.ROOK);
+		if (Bitboards.contains(whiteKing, WHITE_KING_SQUARE)) {
+			rights |= Bitboards.contains(whiteRooks, WHITE_KINGSIDE_ROOK_SQUARE) ? WHITE_KINGSIDE : NONE;
+			rights |= Bitboards.contains(whiteRooks, WHITE_QUEENSIDE_ROOK_SQUARE) ? WHITE_QUEENSIDE : NONE;
+		}
+		if (Bitboards.contains(blackKing, BLACK_KING_SQUARE)) {
+			rights |= Bitboards.contains(blackRooks, BLACK_KINGSIDE_ROOK_SQUARE) ? BLACK_KINGSIDE : NONE;
+			rights |= Bitboards.contains(blackRooks, BLACK_QUEENSIDE_ROOK_SQUARE) ? BLACK_QUEENSIDE : NONE;
+		}
+		return rights;
+	}
+}
@@ -0,0 +1,92 @@
+package chess;
+
+import boardgame.Board;
+import boardgame.Piece;
+import boardgame.Position;
+import boardgame.exceptions.BoardException;
+import chess.bitboard.BitboardPosition;
+import chess.bitboard.Bitboards;
+
+/**
+ * 8x8 board whose source of truth is a {@link BitboardPosition}. The piece
+ * objects are kept in a square-indexed array so the {@link Board} API keeps
+ * working on top of the bitboards.
+ */
+public class ChessBoard extends Board {
+
+	private final BitboardPosition bitboards = new BitboardPosition();
+	private final ChessPiece[] squares = new ChessPiece[Bitboards.SQUARES];
+
+	public ChessBoard() {
+		super(Bitboards.SIZE, Bitboards.SIZE);
+	}
+
+	public BitboardPosition getBitboards() {
+		return bitboards;
+	}
+
+	public ChessPiece getPiece(int square) {
+		return squares[square];
+	}
+
+	@Override
+	public Piece getPiece(int row, int column) {
+		if (!positionExists(row, column)) {
+			throw new BoardException("Position not on the board");
+		}
+		return squares[Bitboards.square(row, column)];
+	}
+
+	@Override
+	public Piece getPiece(Position position) {
+		return getPiece(position.getRow(), position.getColumn());
+	}
+
+	@Override
+	public void placePiece(Piece piece, Position position) {
+		if (!positionExists(position)) {
+			throw new BoardException("Position not on the board");
+		}
+		if (thereIsAPiece(position)) {
+			throw new BoardException("There is a piece on position " + position);
+		}
+		placePiece((ChessPiece) piece, Bitboards.square(position.getRow(), position.getColumn()));
+	}
+
+	public void placePiece(ChessPiece piece, int square) {
+		squares[square] = piece;
+		bitboards.put(piece.getColor(), piece.getType(), square);
+		piece.setSquare(square);
+	}
+
+	@Override
+	public Piece removePiece(Position position) {
+		if (!positionExists(position)) {
+			throw new BoardException("Position not on the board");
+		}
+		return removePiece(Bitboards.square(position.getRow(), position.getColumn()));
+	}
+
+	public ChessPiece removePiece(int square) {
+		ChessPiece removedPiece = squares[square];
+		if (removedPiece == null) {
+			return null;
+		}
+		squares[square] = null;
+		bitboards.remove(removedPiece.getColor(), removedPiece.getType(), square);
+		removedPiece.setSquare(Bitboards.NO_SQUARE);
+		return removedPiece;
+	}
+
+	@Override
+	public boolean thereIsAPiece(Position position) {
+		if (!positionExists(position)) {
+			throw new BoardException("Position not on the board");
+		}
+		return bitboards.isOccupied(Bitboards.square(position.getRow(), position.getColumn()));
+	}
+
+	private boolean positionExists(int row, int column) {
+		return row >= 0 && row < Bitboards.SIZE && column >= 0 && column < Bitboards.SIZE;
+	}
+}
@@ -1,12 +1,14 @@
 package chess;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
-import boardgame.Board;
-import boardgame.Piece;
 import boardgame.Position;
+import chess.bitboard.BitboardPosition;
+import chess.bitboard.Attacks;
+import chess.bitboard.Bitboards;
+import chess.bitboard.Zobrist;
 import chess.exceptions.ChessException;
 import chess.pieces.Bishop;
 import chess.pieces.King;
@@ -17,27 +19,131 @@ import chess.pieces.Rook;
 
 public class ChessMatch {
 
-	private Board board;
+	private ChessBoard board;
 	private int turn;
 	private Color currentPlayer;
 	private boolean check;
 	private boolean checkMate;
 	private boolean draw;
-	private ChessPiece enPassantVulnerable;
+	private int enPassantSquare;
+	private int castlingRights;
+	private int halfmoveClock;
 	private ChessPiece promoted;
 
-	private static final int WHITE_PROMOTION_ROW = 0;
-	private static final int BLACK_PROMOTION_ROW = 7;
-
-	private List<ChessPiece> piecesOnTheBoard = new ArrayList<>();
 	private List<ChessPiece> capturedPieces = new ArrayList<>();
+	private UndoRecord[] history = new UndoRecord[0];
+	private int historySize;
+	// Posições anteriores ao histórico, herdadas na cópia, para detectar repetições
+	private long[] earlierHashes = new long[0];
+	// Posição antes do primeiro lance do histórico, guardada na criação
+	private String startingFen;
+
+	private static final int INITIAL_HISTORY_CAPACITY = 64;
+	// Primeira e última linhas do tabuleiro
+	private static final long PROMOTION_ROWS = 0xFF000000000000FFL;
+	private static final long LIGHT_SQUARES = 0xAA55AA55AA55AA55L;
+	// Cinquenta lances de cada lado sem captura nem movimento de peão
+	private static final int FIFTY_MOVE_PLIES = 100;
+
+	// Tipos de lance pedidos ao gerador de lances legais
+	private static final int ALL_MOVES = 0;
+	private static final int CAPTURES = 1;
+	private static final int QUIETS = 2;
+
+	private final int[] moveBuffer = new int[Move.MAX_MOVES];
+	// Lances legais do jogador da vez, válidos enquanto o hash for o mesmo
+	private final int[] turnMoves = new int[Move.MAX_MOVES];
+	private int turnMoveCount;
+	private long turnMovesHash;
+	private boolean turnMovesValid;
 
 	public ChessMatch() {
-		board = new Board(8, 8);
+		board = new ChessBoard();
 		turn = 1;
 		currentPlayer = Color.WHITE;
 		check = false;
+		enPassantSquare = Bitboards.NO_SQUARE;
+		castlingRights = CastlingRights.ALL;
 		initialSetup();
+		board.getBitboards().toggleHash(Zobrist.castling(castlingRights));
+		startingFen = toFen();
+	}
+
+	/**
+	 * Starts a match from a position in Forsyth-Edwards Notation, e.g.
+	 * "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1".
+	 */
+	public ChessMatch(String fen) {
+		board = new ChessBoard();
+		fenSetup(fen);
+		board.getBitboards().toggleHash(
+				Zobrist.castling(castlingRights) ^ Zobrist.sideToMove(currentPlayer) ^ enPassantKey());
+		updateGameStatus();
+		startingFen = toFen();
+	}
+
+	/**
+	 * Independent copy of {@code other}'s current position and game status, with
+	 * its own board and pieces, so it can be used from another thread. The copy
+	 * starts with an empty undo stack but remembers the positions since the last
+	 * capture or pawn move, so it still detects repetitions.
+	 */
+	public ChessMatch(ChessMatch other) {
+		board = new ChessBoard();
+		copyPosition(other);
+	}
+
+	/**
+	 * Turns this match into a copy of {@code other}, as the copy constructor
+	 * does, but keeps this match's board and undo records, so a searcher can
+	 * take each new position without allocating a new match.
+	 */
+	public void setPosition(ChessMatch other) {
+		if (other == this) {
+			return;
+		}
+		long occupied = board.getBitboards().getAllPieces();
+		while (occupied != 0) {
+			board.removePiece(Bitboards.firstSquare(occupied));
+			occupied = Bitboards.withoutFirstSquare(occupied);
+		}
+		historySize = 0;
+		capturedPieces.clear();
+		turnMovesValid = false;
+		copyPosition(other);
+	}
+
+	private void copyPosition(ChessMatch other) {
+		long occupied = other.board.getBitboards().getAllPieces();
+		while (occupied != 0) {
+			int square = Bitboards.firstSquare(occupied);
+			ChessPiece original = other.board.getPiece(square);
+			ChessPiece copy = newPiece(original.getType(), original.getColor());
+			copy.setMoveCount(original.getMoveCount());
+			board.placePiece(copy, square);
+			occupied = Bitboards.withoutFirstSquare(occupied);
+		}
+		board.getBitboards().setHash(other.board.getBitboards().getHash());
+
+		turn = other.turn;
+		currentPlayer = other.currentPlayer;
+		check = other.check;
+		checkMate = other.checkMate;
+		draw = other.draw;
+		enPassantSquare = other.enPassantSquare;
+		castlingRights = other.castlingRights;
+		halfmoveClock = other.halfmoveClock;
+		capturedPieces.addAll(other.capturedPieces);
+		// A peça promovida precisa ser a da cópia, não a do original
+		boolean promotedOnBoard = other.promoted != null && other.promoted.getSquare() != Bitboards.NO_SQUARE;
+		promoted = promotedOnBoard ? board.getPiece(other.promoted.getSquare()) : null;
+
+		int kept = Math.min(other.halfmoveClock, other.historySize + other.earlierHashes.length);
+		earlierHashes = new long[kept];
+		for (int i = 0; i < kept; i++) {
+			earlierHashes[i] = other.positionHash(kept - i);
+		}
+		startingFen = toFen();
 	}
 
 	// ================== GETTERS ==================
@@ -62,45 +168,194 @@ public class ChessMatch {
 	}
 
 	public ChessPiece getEnPassantVulnerable() {
-		return enPassantVulnerable;
+		if (enPassantSquare == Bitboards.NO_SQUARE) {
+			return null;
+		}
+		// O peão vulnerável fica uma casa à frente da casa de captura, do ponto de vista de quem joga
+		return board.getPiece(enPassantSquare + (currentPlayer == Color.WHITE ? Bitboards.SIZE : -Bitboards.SIZE));
+	}
+
+	public int getEnPassantSquare() {
+		return enPassantSquare;
+	}
+
+	public int getCastlingRights() {
+		return castlingRights;
+	}
+
+	public int getHalfmoveClock() {
+		return halfmoveClock;
+	}
+
+	/** Moves played since the match was created or copied, oldest first. */
+	public int[] getMoveHistory() {
+		int[] moves = new int[historySize];
+		for (int i = 0; i < historySize; i++) {
+			moves[i] = history[i].move;
+		}
+		return moves;
+	}
+
+	/** Zobrist hash of the position, kept up to date by every move. */
+	public long getHash() {
+		return board.getBitboards().getHash();
 	}
 
 	public ChessPiece getPromoted() {
 		return promoted;
 	}
 
+	public BitboardPosition getBitboards() {
+		return board.getBitboards();
+	}
+
 	public ChessPiece[][] getPieces() {
 		ChessPiece[][] mat = new ChessPiece[board.getRows()][board.getColumns()];
-		for (int i = 0; i < board.getRows(); i++) {
-			for (int j = 0; j < board.getColumns(); j++) {
-				mat[i][j] = (ChessPiece) board.getPiece(i, j);
-			}
+		long occupied = board.getBitboards().getAllPieces();
+		while (occupied != 0) {
+			int square = Bitboards.firstSquare(occupied);
+			mat[Bitboards.row(square)][Bitboards.column(square)] = board.getPiece(square);
+			occupied = Bitboards.withoutFirstSquare(occupied);
 		}
 		return mat;
 	}
 
 	// ================== MOVE QUERIES ==================
 
+	/**
+	 * Writes the pseudo-legal moves of the current player into {@code moves},
+	 * packed as described in {@link Move}. The buffer must hold at least
+	 * {@link Move#MAX_MOVES} entries.
+	 *
+	 * @return the number of moves written
+	 */
+	public int generateMoves(int[] moves) {
+		return generateMoves(currentPlayer, moves);
+	}
+
+	/**
+	 * Same as {@link #generateMoves(int[])} but only writes the moves that don't
+	 * leave the current player's king in check.
+	 */
+	public int generateLegalMoves(int[] moves) {
+		return generateLegalMoves(currentPlayer, moves, ALL_MOVES, Bitboards.ALL);
+	}
+
+	/**
+	 * Legal captures, en passant and promotions of the current player only, for
+	 * quiescence search.
+	 */
+	public int generateLegalCaptures(int[] moves) {
+		return generateLegalMoves(currentPlayer, moves, CAPTURES, Bitboards.ALL);
+	}
+
+	/** The legal moves left out by {@link #generateLegalCaptures(int[])}, castling included. */
+	public int generateLegalQuiets(int[] moves) {
+		return generateLegalMoves(currentPlayer, moves, QUIETS, Bitboards.ALL);
+	}
+
+	/** Same as {@link #generateLegalMoves(int[])} for the pieces standing on {@code sources} only. */
+	public int generateLegalMoves(long sources, int[] moves) {
+		return generateLegalMoves(currentPlayer, moves, ALL_MOVES, sources);
+	}
+
+	/**
+	 * Whether {@code move}, e.g. from a hash table or another position, is legal
+	 * for the current player. Only the moving piece's moves are generated.
+	 */
+	public boolean isLegalMove(int move) {
+		int source = Move.from(move);
+		if (!Bitboards.contains(board.getBitboards().getOccupancy(currentPlayer), source)) {
+			return false;
+		}
+		int count = generateLegalMoves(currentPlayer, moveBuffer, ALL_MOVES, Bitboards.bit(source));
+		for (int i = 0; i < count; i++) {
+			if (moveBuffer[i] == move) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private int generateMoves(Color color, int[] moves) {
+		int count = 0;
+		long pieces = board.getBitboards().getOccupancy(color);
+		while (pieces != 0) {
+			count = board.getPiece(Bitboards.firstSquare(pieces)).generateMoves(moves, count);
+			pieces = Bitboards.withoutFirstSquare(pieces);
+		}
+		return count;
+	}
+
+	/**
+	 * Legal moves computed in one pass: the checkers and pinned pieces are found
+	 * once, then every piece only emits targets inside its mask. Nothing is
+	 * played on the board. Only pieces standing on {@code sources} move.
+	 */
+	private int generateLegalMoves(Color color, int[] moves, int kind, long sources) {
+		BitboardPosition bitboards = board.getBitboards();
+		Color opponent = getOpponent(color);
+		int kingSquare = findKingByColor(color);
+		long checkers = bitboards.attackersOf(kingSquare, opponent, bitboards.getAllPieces());
+		long kindMask = kindMask(kind, bitboards.getOccupancy(opponent));
+		// Promoções de peão contam como capturas, mesmo sem capturar
+		long pawnKindMask = kind == CAPTURES ? kindMask | PROMOTION_ROWS
+				: kind == QUIETS ? kindMask & ~PROMOTION_ROWS : kindMask;
+
+		int count = 0;
+		if (Bitboards.contains(sources, kingSquare)) {
+			long kingMask = kingTargets(kingSquare, color, checkers) & kindMask;
+			count = board.getPiece(kingSquare).generateMoves(moves, 0, kingMask);
+		}
+		if (Bitboards.count(checkers) > 1) {
+			// Xeque duplo: só o rei pode se mover
+			return count;
+		}
+
+		long checkMask = Bitboards.ALL;
+		if (checkers != 0) {
+			// Captura a peça que dá xeque ou bloqueia o caminho dela
+			checkMask = checkers | Attacks.between(kingSquare, Bitboards.firstSquare(checkers));
+		}
+		long pinned = pinnedPieces(kingSquare, color);
+		long pieces = bitboards.getOccupancy(color) & ~Bitboards.bit(kingSquare) & sources;
+		while (pieces != 0) {
+			int square = Bitboards.firstSquare(pieces);
+			ChessPiece piece = board.getPiece(square);
+			long targetMask = checkMask & (piece.getType() == PieceType.PAWN ? pawnKindMask : kindMask);
+			if (Bitboards.contains(pinned, square)) {
+				targetMask &= Attacks.line(kingSquare, square);
+			}
+			count = piece.generateMoves(moves, count, targetMask);
+			pieces = Bitboards.withoutFirstSquare(pieces);
+		}
+		if (enPassantSquare == Bitboards.NO_SQUARE) {
+			return count;
+		}
+		return retainLegalEnPassant(moves, count, kingSquare, color, kind != QUIETS);
+	}
+
+	private static long kindMask(int kind, long opponentPieces) {
+		switch (kind) {
+		case CAPTURES:
+			return opponentPieces;
+		case QUIETS:
+			return ~opponentPieces;
+		default:
+			return Bitboards.ALL;
+		}
+	}
+
 	public boolean[][] getLegalMoves(ChessPosition sourcePosition) {
 		Position source = sourcePosition.toPosition();
-		validateSourcePosition(source);
-		ChessPiece piece = (ChessPiece) board.getPiece(source);
+		ChessPiece piece = validateSourcePosition(source);
 
-		boolean[][] baseMoves = piece.possibleMoves();
+		int count = turnMoves();
 		boolean[][] legalMoves = new boolean[board.getRows()][board.getColumns()];
-
-		for (int i = 0; i < board.getRows(); i++) {
-			for (int j = 0; j < board.getColumns(); j++) {
-				if (baseMoves[i][j]) {
-					Position target = new Position(i, j);
-					Piece captured = makeMove(source, target);
-					boolean kingSafe = !isKingInCheck(piece.getColor());
-					undoMove(source, target, captured);
-
-					if (kingSafe) {
-						legalMoves[i][j] = true;
-					}
-				}
+		for (int i = 0; i < count; i++) {
+			if (Move.from(turnMoves[i]) == piece.getSquare()) {
+				int target = Move.to(turnMoves[i]);
+				legalMoves[Bitboards.row(target)][Bitboards.column(target)] = true;
 			}
 		}
 		return legalMoves;
@@ -111,80 +366,103 @@ public class ChessMatch {
 		if (!board.thereIsAPiece(sourcePosition)) {
 			throw new ChessException("There is no piece on position " + sourcePosition);
 		}
-		if (currentPlayer != ((ChessPiece) board.getPiece(sourcePosition)).getColor()) {
+		ChessPiece piece = (ChessPiece) board.getPiece(sourcePosition);
+		if (currentPlayer != piece.getColor()) {
 			throw new ChessException("The chosen piece is not yours");
 		}
-		if (!board.getPiece(sourcePosition).isThereAnyPossibleMove()) {
+		if (!hasTurnMoveFrom(piece.getSquare())) {
 			throw new ChessException("There is no move for the chosen piece " + sourcePosition);
 		}
-		ChessPiece piece = (ChessPiece) board.getPiece(sourcePosition);
 		return piece;
 	}
 
 	public void validateTargetPosition(Position source, Position target) {
-		if (!board.getPiece(source).possibleMove(target)) {
-			throw new ChessException("The chosen piece can't move to target position");
-		}
+		findMove(source, target);
 	}
 
 	// ================== GAME EXECUTION ==================
 	public ChessPiece performChessMove(ChessPosition sourcePosition, ChessPosition targetPosition) {
-		updateDrawStatus();
-
 		Position source = sourcePosition.toPosition();
 		Position target = targetPosition.toPosition();
 
 		validateSourcePosition(source);
-		validateTargetPosition(source, target);
-
-		Piece capturedPiece = makeMove(source, target);
-
-		validateKingSafety(source, target, capturedPiece);
+		int move = findMove(source, target);
 
-		ChessPiece movedPiece = (ChessPiece) board.getPiece(target);
+		makeMove(move);
+		ChessPiece capturedPiece = history[historySize - 1].capturedPiece;
 
-		handlePromotion(movedPiece, target);
-		updateCheckStatus();
-		updateCheckMateStatus();
-		updateDrawStatus();
+		handlePromotion(move);
+		updateGameStatus();
 
-		nextTurn();
-
-		updateEnPassantVulnerability(movedPiece, source, target);
-
-		return (ChessPiece) capturedPiece;
+		return capturedPiece;
 	}
 
-	private void updateCheckStatus() {
-		check = isKingInCheck(getOpponent(currentPlayer));
+	/** Takes back the last move, restoring the check, checkmate, draw and promotion state along with the board. */
+	public void undoChessMove() {
+		if (historySize == 0) {
+			throw new ChessException("There is no move to undo");
+		}
+		undoMove();
+		handlePromotion(historySize > 0 ? history[historySize - 1].move : Move.NONE);
+		updateGameStatus();
 	}
 
-	private void updateCheckMateStatus() {
-		checkMate = isCheckMate(getOpponent(currentPlayer));
+	private int findMove(Position source, Position target) {
+		int sourceSquare = Bitboards.square(source.getRow(), source.getColumn());
+		int targetSquare = Bitboards.square(target.getRow(), target.getColumn());
+		int count = turnMoves();
+		// Promoções são geradas com a dama primeiro, então a primeira ocorrência já é a padrão
+		for (int i = 0; i < count; i++) {
+			if (Move.from(turnMoves[i]) == sourceSquare && Move.to(turnMoves[i]) == targetSquare) {
+				return turnMoves[i];
+			}
+		}
+		// Só no caminho de erro: distingue lance impossível de lance que deixa o rei em xeque
+		ChessPiece piece = (ChessPiece) board.getPiece(source);
+		int pseudoLegal = piece.generateMoves(moveBuffer, 0);
+		for (int i = 0; i < pseudoLegal; i++) {
+			if (Move.to(moveBuffer[i]) == targetSquare) {
+				throw new ChessException("You can't put yourself in check");
+			}
+		}
+		throw new ChessException("The chosen piece can't move to target position");
 	}
 
-	private void updateDrawStatus() {
-		draw = isDraw(currentPlayer);
+	/**
+	 * Legal moves of the current player, kept in {@link #turnMoves}. They are
+	 * generated once per position: validation, display and the game status all
+	 * read the same list until a move changes the hash.
+	 */
+	private int turnMoves() {
+		long hash = board.getBitboards().getHash();
+		if (!turnMovesValid || turnMovesHash != hash) {
+			turnMoveCount = generateLegalMoves(currentPlayer, turnMoves, ALL_MOVES, Bitboards.ALL);
+			turnMovesHash = hash;
+			turnMovesValid = true;
+		}
+		return turnMoveCount;
 	}
 
-	private void validateKingSafety(Position source, Position target, Piece capturedPiece) {
-		if (isKingInCheck(currentPlayer)) {
-			undoMove(source, target, capturedPiece);
-			throw new ChessException("You can't put yourself in check");
+	private boolean hasTurnMoveFrom(int square) {
+		int count = turnMoves();
+		for (int i = 0; i < count; i++) {
+			if (Move.from(turnMoves[i]) == square) {
+				return true;
+			}
 		}
+		return false;
 	}
 
-	public void handlePromotion(ChessPiece movedPiece, Position target) {
-		promoted = null;
-
-		if (!(movedPiece instanceof Pawn))
-			return;
+	/** Check, checkmate and draw of the current player, with a single legal move generation. */
+	private void updateGameStatus() {
+		boolean canMove = turnMoves() > 0;
+		check = isKingInCheck(currentPlayer);
+		checkMate = check && !canMove;
+		draw = !checkMate && (!canMove || isRuleDraw());
+	}
 
-		if ((movedPiece.getColor() == Color.WHITE && target.getRow() == WHITE_PROMOTION_ROW)
-				|| (movedPiece.getColor() == Color.BLACK && target.getRow() == BLACK_PROMOTION_ROW)) {
-			promoted = (ChessPiece) board.getPiece(target);
-			promoted = replacePromotedPiece("Q");
-		}
+	private void handlePromotion(int move) {
+		promoted = Move.isPromotion(move) ? board.getPiece(Move.to(move)) : null;
 	}
 	
 	public ChessPiece replacePromotedPiece(String type) {
@@ -195,160 +473,302 @@ public class ChessMatch {
 			return promoted;
 		}
 
-		Position promotedPiecePosition = promoted.getChessPosition().toPosition();
-		Piece removePromotedPiece = board.removePiece(promotedPiecePosition);
-		piecesOnTheBoard.remove(removePromotedPiece);
+		int square = promoted.getSquare();
+		board.removePiece(square);
 
 		ChessPiece newPromotedPiece = newPiece(type, promoted.getColor());
-		board.placePiece(newPromotedPiece, promotedPiecePosition);
-		piecesOnTheBoard.add(newPromotedPiece);
+		board.placePiece(newPromotedPiece, square);
+
+		// O histórico guarda a peça escolhida, não a dama gerada por padrão; uma cópia não tem o lance
+		if (historySize > 0) {
+			UndoRecord record = history[historySize - 1];
+			record.move = Move.of(Move.from(record.move), square,
+					Move.promotionFlags(newPromotedPiece.getType(), Move.isCapture(record.move)));
+		}
+		updateGameStatus();
 
 		return newPromotedPiece;
 	}
 
-	private void updateEnPassantVulnerability(ChessPiece movedPiece, Position source, Position target) {
-		if (!(movedPiece instanceof Pawn)) {
-			enPassantVulnerable = null;
-			return;
+	// ================== MAKE / UNMAKE ==================
+
+	/**
+	 * Plays a move produced by {@link #generateMoves(int[])} and hands the turn to
+	 * the opponent. Legality is not checked; every call must be paired with
+	 * {@link #undoMove()}, which restores the position in O(1). Meant for search
+	 * and perft: neither touches the check, checkmate, draw and promotion
+	 * state, which {@link #performChessMove} and {@link #undoChessMove} keep.
+	 */
+	public void makeMove(int move) {
+		int source = Move.from(move);
+		int target = Move.to(move);
+
+		UndoRecord record = pushUndoRecord(move);
+		board.getBitboards().toggleHash(enPassantKey());
+		ChessPiece movingPiece = board.removePiece(source);
+		movingPiece.increaseMoveCount();
+		record.movedPiece = movingPiece;
+
+		ChessPiece capturedPiece = board.removePiece(target);
+		board.placePiece(handlePromotionMove(movingPiece, move), target);
+
+		handleCastling(move);
+		capturedPiece = handleEnPassant(movingPiece, move, capturedPiece);
+		if (capturedPiece != null) {
+			capturedPieces.add(capturedPiece);
 		}
-		// Verifica se o peão andou duas casas
-		enPassantVulnerable = (Math.abs(target.getRow() - source.getRow()) == 2) ? movedPiece : null;
+		record.capturedPiece = capturedPiece;
+
+		updateIrreversibleState(movingPiece, move, capturedPiece != null);
+		nextTurn();
+		board.getBitboards().toggleHash(Zobrist.sideToMove(Color.BLACK) ^ enPassantKey());
 	}
 
-	// ================== PRIVATE UTILITIES ==================
-	private ChessPiece makeMove(Position source, Position target) {
-		ChessPiece movingPiece = (ChessPiece) board.removePiece(source);
-		movingPiece.increaseMoveCount();
-		Piece capturedPiece = board.removePiece(target);
-		board.placePiece(movingPiece, target);
-		movingPiece.setPosition(target);
+	public void undoMove() {
+		UndoRecord record = history[--historySize];
+		int move = record.move;
+		int source = Move.from(move);
+		int target = Move.to(move);
 
+		previousTurn();
+		enPassantSquare = record.enPassantSquare;
+		castlingRights = record.castlingRights;
+		halfmoveClock = record.halfmoveClock;
+
+		board.removePiece(target);
+		ChessPiece movedPiece = record.movedPiece;
+		movedPiece.decreaseMoveCount();
+		board.placePiece(movedPiece, source);
+
+		ChessPiece capturedPiece = record.capturedPiece;
 		if (capturedPiece != null) {
-			piecesOnTheBoard.remove(capturedPiece);
-			capturedPieces.add((ChessPiece) capturedPiece);
+			int captureSquare = Move.isEnPassant(move) ? enPassantCaptureSquare(movedPiece.getColor(), move) : target;
+			board.placePiece(capturedPiece, captureSquare);
+			capturedPieces.remove(capturedPieces.size() - 1);
 		}
 
-		handleCastling(movingPiece, source, target);
-		capturedPiece = handleEnPassant(movingPiece, source, target, capturedPiece);
+		undoCastling(move);
+		board.getBitboards().setHash(record.hash);
+		record.clear();
+	}
 
-		return (ChessPiece) capturedPiece;
+	private UndoRecord pushUndoRecord(int move) {
+		if (historySize == history.length) {
+			growHistory();
+		}
+		UndoRecord record = history[historySize++];
+		record.move = move;
+		record.enPassantSquare = enPassantSquare;
+		record.castlingRights = castlingRights;
+		record.halfmoveClock = halfmoveClock;
+		record.hash = board.getBitboards().getHash();
+		return record;
 	}
 
-	private void handleCastling(ChessPiece king, Position source, Position target) {
-		if (!(king instanceof King))
-			return;
+	private void growHistory() {
+		int oldLength = history.length;
+		history = Arrays.copyOf(history, Math.max(INITIAL_HISTORY_CAPACITY, oldLength * 2));
+		for (int i = oldLength; i < history.length; i++) {
+			history[i] = new UndoRecord();
+		}
+	}
 
-		// Minor castling
-		if (target.getColumn() == source.getColumn() + 2) {
-			Position sourceRook = new Position(source.getRow(), source.getColumn() + 3);
-			Position targetRook = new Position(source.getRow(), source.getColumn() + 1);
-			ChessPiece rook = (ChessPiece) board.removePiece(sourceRook);
-			board.placePiece(rook, targetRook);
-			rook.increaseMoveCount();
-		}
-
-		// Major Castling
-		if (target.getColumn() == source.getColumn() - 2) {
-			Position sourceRook = new Position(source.getRow(), source.getColumn() - 4);
-			Position targetRook = new Position(source.getRow(), source.getColumn() - 1);
-			ChessPiece rook = (ChessPiece) board.removePiece(sourceRook);
-			board.placePiece(rook, targetRook);
-			rook.increaseMoveCount();
-		}
-	}
-
-	private ChessPiece handleEnPassant(ChessPiece piece, Position source, Position target, Piece capturedPiece) {
-		if (!(piece instanceof Pawn))
-			return (ChessPiece) capturedPiece;
-
-		// Diagonal movement without captured piece = En Passant
-		if (source.getColumn() != target.getColumn() && capturedPiece == null) {
-			// CONSISTENTE com a classe Pawn
-			Position pawnPosition;
-			if (piece.getColor() == Color.WHITE) {
-				pawnPosition = new Position(target.getRow() + 1, target.getColumn());
-			} else {
-				pawnPosition = new Position(target.getRow() - 1, target.getColumn());
-			}
-			capturedPiece = board.removePiece(pawnPosition);
-			capturedPieces.add((ChessPiece) capturedPiece);
-			piecesOnTheBoard.remove(capturedPiece);
+	private void updateIrreversibleState(ChessPiece movingPiece, int move, boolean capture) {
+		BitboardPosition bitboards = board.getBitboards();
+		bitboards.toggleHash(Zobrist.castling(castlingRights));
+		castlingRights = CastlingRights.afterMove(castlingRights, Move.from(move), Move.to(move));
+		bitboards.toggleHash(Zobrist.castling(castlingRights));
+
+		// Só fica vulnerável o peão que acabou de andar duas casas
+		enPassantSquare = (Move.flags(move) == Move.DOUBLE_PAWN_PUSH) ? (Move.from(move) + Move.to(move)) / 2
+				: Bitboards.NO_SQUARE;
+		if (capture || movingPiece.getType() == PieceType.PAWN) {
+			halfmoveClock = 0;
+		} else {
+			halfmoveClock++;
 		}
+	}
 
-		return (ChessPiece) capturedPiece;
+	/**
+	 * The en passant file only enters the hash when the side to move has a pawn
+	 * that can actually capture, so otherwise identical positions hash the same.
+	 */
+	private long enPassantKey() {
+		if (enPassantSquare == Bitboards.NO_SQUARE) {
+			return 0L;
+		}
+		long capturers = Attacks.pawn(getOpponent(currentPlayer), enPassantSquare)
+				& board.getBitboards().getPieces(currentPlayer, PieceType.PAWN);
+		return capturers != 0 ? Zobrist.enPassant(enPassantSquare) : 0L;
 	}
 
-	private void undoMove(Position source, Position target, Piece capturedPiece) {
-		ChessPiece movedPiece = (ChessPiece) board.removePiece(target);
-		movedPiece.decreaseMoveCount();
-		board.placePiece(movedPiece, source);
+	private ChessPiece handlePromotionMove(ChessPiece pawn, int move) {
+		if (!Move.isPromotion(move))
+			return pawn;
 
-		if (capturedPiece != null) {
-			board.placePiece(capturedPiece, target);
-			capturedPieces.remove(capturedPiece);
-			piecesOnTheBoard.add((ChessPiece) capturedPiece);
-		}
+		return newPiece(Move.promotionType(move), pawn.getColor());
+	}
 
-		undoCastling(movedPiece, source, target);
-		undoEnPassant(movedPiece, source, target, capturedPiece);
+	private void handleCastling(int move) {
+		if (!Move.isCastling(move))
+			return;
+
+		ChessPiece rook = board.removePiece(castlingRookSource(move));
+		board.placePiece(rook, castlingRookTarget(move));
+		rook.increaseMoveCount();
 	}
 
-	private void undoCastling(ChessPiece king, Position source, Position target) {
-		if (!(king instanceof King))
+	private ChessPiece handleEnPassant(ChessPiece piece, int move, ChessPiece capturedPiece) {
+		if (!Move.isEnPassant(move))
+			return capturedPiece;
+
+		return board.removePiece(enPassantCaptureSquare(piece.getColor(), move));
+	}
+
+	private void undoCastling(int move) {
+		if (!Move.isCastling(move))
 			return;
 
-		// Minor castling
-		if (target.getColumn() == source.getColumn() + 2) {
-			Position sourceRook = new Position(source.getRow(), source.getColumn() + 3);
-			Position targetRook = new Position(source.getRow(), source.getColumn() + 1);
-			ChessPiece rook = (ChessPiece) board.removePiece(targetRook);
-			board.placePiece(rook, sourceRook);
-			rook.decreaseMoveCount();
+		ChessPiece rook = board.removePiece(castlingRookTarget(move));
+		board.placePiece(rook, castlingRookSource(move));
+		rook.decreaseMoveCount();
+	}
+
+	// ================== PRIVATE UTILITIES ==================
+	/**
+	 * Squares the king can step to without being attacked, looking through its
+	 * own square so it can't retreat along a checking ray. When not in check the
+	 * castling destinations are included too.
+	 */
+	private long kingTargets(int kingSquare, Color color, long checkers) {
+		BitboardPosition bitboards = board.getBitboards();
+		long candidates = Attacks.king(kingSquare) & ~bitboards.getOccupancy(color);
+		if (checkers == 0) {
+			candidates |= castlingTargets(kingSquare);
 		}
+		long occupied = bitboards.getAllPieces() & ~Bitboards.bit(kingSquare);
+		Color opponent = getOpponent(color);
+		long safe = Bitboards.EMPTY;
+		while (candidates != 0) {
+			int square = Bitboards.firstSquare(candidates);
+			if (bitboards.attackersOf(square, opponent, occupied) == 0) {
+				safe |= Bitboards.bit(square);
+			}
+			candidates = Bitboards.withoutFirstSquare(candidates);
+		}
+		return safe;
+	}
 
-		// Major castling
-		if (target.getColumn() == source.getColumn() - 2) {
-			Position sourceRook = new Position(source.getRow(), source.getColumn() - 4);
-			Position targetRook = new Position(source.getRow(), source.getColumn() - 1);
-			ChessPiece rook = (ChessPiece) board.removePiece(targetRook);
-			board.placePiece(rook, sourceRook);
-			rook.decreaseMoveCount();
+	private long castlingTargets(int kingSquare) {
+		long targets = Bitboards.EMPTY;
+		int column = Bitboards.column(kingSquare);
+		if (column + 2 < Bitboards.SIZE) {
+			targets |= Bitboards.bit(kingSquare + 2);
 		}
+		if (column - 2 >= 0) {
+			targets |= Bitboards.bit(kingSquare - 2);
+		}
+		return targets;
 	}
 
-	private void undoEnPassant(ChessPiece piece, Position source, Position target, Piece capturedPiece) {
-		if (!(piece instanceof Pawn))
-			return;
+	/** Own pieces standing alone between the king and an enemy slider aimed at it. */
+	private long pinnedPieces(int kingSquare, Color color) {
+		BitboardPosition bitboards = board.getBitboards();
+		Color opponent = getOpponent(color);
+		long opponentPieces = bitboards.getOccupancy(opponent);
+		long queens = bitboards.getPieces(opponent, PieceType.QUEEN);
+		long rooks = bitboards.getPieces(opponent, PieceType.ROOK) | queens;
+		long bishops = bitboards.getPieces(opponent, PieceType.BISHOP) | queens;
+		// Atacantes enxergados através das nossas peças, que podem estar cravadas
+		long snipers = (Attacks.rook(kingSquare, opponentPieces) & rooks)
+				| (Attacks.bishop(kingSquare, opponentPieces) & bishops);
+
+		long pinned = Bitboards.EMPTY;
+		while (snipers != 0) {
+			long blockers = Attacks.between(kingSquare, Bitboards.firstSquare(snipers)) & bitboards.getAllPieces();
+			if (Bitboards.count(blockers) == 1) {
+				pinned |= blockers & bitboards.getOccupancy(color);
+			}
+			snipers = Bitboards.withoutFirstSquare(snipers);
+		}
+		return pinned;
+	}
 
-		if (source.getColumn() != target.getColumn() && capturedPiece == enPassantVulnerable) {
-			ChessPiece pawn = (ChessPiece) board.removePiece(target);
-			Position pawnPosition;
-			if (piece.getColor() == Color.WHITE) {
-				pawnPosition = new Position(3, target.getColumn());
-			} else {
-				pawnPosition = new Position(4, target.getColumn());
+	/**
+	 * En passant removes two pieces from the capturing pawn's rank at once, so a
+	 * pin mask can't describe it. Each capture is checked against the occupancy
+	 * it would leave behind instead, or dropped when {@code keep} is false.
+	 */
+	private int retainLegalEnPassant(int[] moves, int count, int kingSquare, Color color, boolean keep) {
+		BitboardPosition bitboards = board.getBitboards();
+		int legalCount = 0;
+		for (int i = 0; i < count; i++) {
+			int move = moves[i];
+			if (Move.isEnPassant(move)) {
+				if (!keep) {
+					continue;
+				}
+				long captured = Bitboards.bit(enPassantCaptureSquare(color, move));
+				long occupied = (bitboards.getAllPieces() & ~Bitboards.bit(Move.from(move)) & ~captured)
+						| Bitboards.bit(Move.to(move));
+				if ((bitboards.attackersOf(kingSquare, getOpponent(color), occupied) & ~captured) != 0) {
+					continue;
+				}
 			}
-			board.placePiece(pawn, pawnPosition);
+			moves[legalCount++] = move;
 		}
+		return legalCount;
+	}
+
+	private int castlingRookSource(int move) {
+		// Minor castling: torre da coluna h; major castling: torre da coluna a
+		return Move.flags(move) == Move.KING_CASTLE ? Move.from(move) + 3 : Move.from(move) - 4;
+	}
+
+	private int castlingRookTarget(int move) {
+		return Move.flags(move) == Move.KING_CASTLE ? Move.from(move) + 1 : Move.from(move) - 1;
+	}
+
+	private int enPassantCaptureSquare(Color color, int move) {
+		// O peão capturado fica atrás da casa de destino
+		return Move.to(move) + (color == Color.WHITE ? Bitboards.SIZE : -Bitboards.SIZE);
 	}
 
 	private ChessPiece newPiece(String type, Color color) {
 		if (type.equals("B"))
+			return newPiece(PieceType.BISHOP, color);
+		if (type.equals("N"))
+			return newPiece(PieceType.KNIGHT, color);
+		if (type.equals("R"))
+			return newPiece(PieceType.ROOK, color);
+		return newPiece(PieceType.QUEEN, color);
+	}
+
+	private ChessPiece newPiece(PieceType type, Color color) {
+		switch (type) {
+		case PAWN:
+			return new Pawn(board, color, this);
+		case KING:
+			return new King(board, color, this);
+		case BISHOP:
 			return new Bishop(board, color);
-		if (type.equals("H"))
+		case KNIGHT:
 			return new Knight(board, color);
-		if (type.equals("R"))
+		case ROOK:
 			return new Rook(board, color);
-		return new Queen(board, color);
+		default:
+			return new Queen(board, color);
+		}
 	}
 
 	private void nextTurn() {
 		turn++;
-		if (currentPlayer == Color.WHITE) {
-			currentPlayer = Color.BLACK;
-		} else {
-			currentPlayer = Color.WHITE;
-		}
+		currentPlayer = getOpponent(currentPlayer);
+	}
+
+	private void previousTurn() {
+		turn--;
+		currentPlayer = getOpponent(currentPlayer);
 	}
 
 	// ================== GAME STATE CHECKS ==================
@@ -356,89 +776,99 @@ public class ChessMatch {
 		return (color == Color.WHITE) ? Color.BLACK : Color.WHITE;
 	}
 
-	private ChessPiece findKingByColor(Color color) {
-		List<Piece> list = piecesOnTheBoard.stream().filter(x -> ((ChessPiece) x).getColor() == color)
-				.collect(Collectors.toList());
-
-		for (Piece piece : list) {
-			if (piece instanceof King) {
-				return (ChessPiece) piece;
-			}
+	private int findKingByColor(Color color) {
+		int kingSquare = board.getBitboards().getKingSquare(color);
+		if (kingSquare == Bitboards.NO_SQUARE) {
+			throw new IllegalStateException("There is no " + color + " King on the board");
 		}
-		throw new IllegalStateException("There is no " + color + " King on the board");
+		return kingSquare;
 	}
 
-	private boolean isKingInCheck(Color color) {
-		Position kingPosition = findKingByColor(color).getChessPosition().toPosition();
-		List<Piece> opponentPieces = piecesOnTheBoard.stream()
-				.filter(x -> ((ChessPiece) x).getColor() == getOpponent(color)).collect(Collectors.toList());
-
-		for (Piece opponentPiece : opponentPieces) {
-			boolean[][] opponentMovesMatrix = opponentPiece.possibleMoves();
-			if (opponentMovesMatrix[kingPosition.getRow()][kingPosition.getColumn()]) {
-				return true;
-			}
-		}
-		return false;
+	public boolean isKingInCheck(Color color) {
+		return board.getBitboards().isAttacked(findKingByColor(color), getOpponent(color));
 	}
 
-	private boolean isCheckMate(Color color) {
-		if (!isKingInCheck(color)) {
-			return false;
-		}
+	/**
+	 * Stalemate, fifty-move rule, threefold repetition or insufficient material.
+	 * The rule-based draws are applied at once, without waiting for a claim,
+	 * and are tested before the stalemate, which needs move generation.
+	 */
+	public boolean isDraw(Color playerColor) {
+		return isRuleDraw() || (!isKingInCheck(playerColor) && !hasLegalMoves(playerColor));
+	}
 
-		List<Piece> pieces = piecesOnTheBoard.stream().filter(x -> ((ChessPiece) x).getColor() == color)
-				.collect(Collectors.toList());
+	private boolean isRuleDraw() {
+		return halfmoveClock >= FIFTY_MOVE_PLIES || isInsufficientMaterial() || isThreefoldRepetition();
+	}
 
-		for (Piece piece : pieces) {
-			boolean[][] possibleMoves = piece.possibleMoves();
-			for (int i = 0; i < board.getRows(); i++) {
-				for (int j = 0; j < board.getColumns(); j++) {
-					if (possibleMoves[i][j]) {
-						Position source = ((ChessPiece) piece).getChessPosition().toPosition();
-						Position target = new Position(i, j);
+	/** Whether the current position occurred before with the same player to move. */
+	public boolean isRepetition() {
+		return countRepetitions(1) >= 1;
+	}
 
-						Piece capturedPiece = makeMove(source, target);
-						boolean kingSafe = !isKingInCheck(color);
-						undoMove(source, target, capturedPiece);
+	/** Whether the current position occurred twice before with the same player to move. */
+	public boolean isThreefoldRepetition() {
+		return countRepetitions(2) >= 2;
+	}
 
-						if (kingSafe) {
-							return false;
-						}
-					}
-				}
+	/**
+	 * Earlier occurrences of the current position, counting at most up to
+	 * {@code limit}. Only positions since the last capture or pawn move can
+	 * repeat, so the scan stops at the halfmove clock.
+	 */
+	private int countRepetitions(int limit) {
+		long hash = board.getBitboards().getHash();
+		int reach = Math.min(halfmoveClock, historySize + earlierHashes.length);
+		int count = 0;
+		// Voltar à mesma posição leva pelo menos quatro meias-jogadas
+		for (int pliesBack = 4; pliesBack <= reach; pliesBack += 2) {
+			if (positionHash(pliesBack) == hash && ++count >= limit) {
+				break;
 			}
 		}
-		return true;
+		return count;
 	}
 
-	public boolean isDraw(Color playerColor) {
-		return !isKingInCheck(playerColor) && !hasLegalMoves(playerColor);
+	/** Hash of the position {@code pliesBack} plies before the current one. */
+	private long positionHash(int pliesBack) {
+		int index = historySize - pliesBack;
+		return index >= 0 ? history[index].hash : earlierHashes[earlierHashes.length + index];
 	}
 
-	private boolean hasLegalMoves(Color playerColor) {
-		List<Piece> pieces = piecesOnTheBoard.stream().filter(x -> ((ChessPiece) x).getColor() == playerColor)
-				.collect(Collectors.toList());
-
-		for (Piece piece : pieces) {
-
-			boolean[][] possibleMoves = piece.possibleMoves();
-			for (int i = 0; i < possibleMoves.length; i++) {
-				for (int j = 0; j < possibleMoves[i].length; j++) {
-					if (possibleMoves[i][j]) {
-						return true;
-					}
-				}
-			}
+	/**
+	 * Neither side can ever mate: kings alone, a single minor piece, or only
+	 * bishops all on squares of the same colour.
+	 */
+	public boolean isInsufficientMaterial() {
+		BitboardPosition bitboards = board.getBitboards();
+		long pawnsAndMajors = 0;
+		long knights = 0;
+		long bishops = 0;
+		for (Color color : Color.values()) {
+			pawnsAndMajors |= bitboards.getPieces(color, PieceType.PAWN) | bitboards.getPieces(color, PieceType.ROOK)
+					| bitboards.getPieces(color, PieceType.QUEEN);
+			knights |= bitboards.getPieces(color, PieceType.KNIGHT);
+			bishops |= bitboards.getPieces(color, PieceType.BISHOP);
+		}
+		if (pawnsAndMajors != 0) {
+			return false;
+		}
+		if (Long.bitCount(knights | bishops) <= 1) {
+			return true;
+		}
+		return knights == 0 && ((bishops & LIGHT_SQUARES) == 0 || (bishops & ~LIGHT_SQUARES) == 0);
+	}
 
+	private boolean hasLegalMoves(Color playerColor) {
+		if (playerColor == currentPlayer) {
+			return turnMoves() > 0;
 		}
-		return false;
+		return generateLegalMoves(playerColor, moveBuffer, ALL_MOVES, Bitboards.ALL) > 0;
 	}
 
 	// ================== INITIAL SETUP ==================
 	private void placeNewPiece(char column, int row, ChessPiece piece) {
 		board.placePiece(piece, new ChessPosition(column, row).toPosition());
-		piecesOnTheBoard.add(piece);
 	}
 
 	private void initialSetup() {
@@ -490,4 +920,190 @@ public class ChessMatch {
 			placeNewPiece(col, 7, new Pawn(board, Color.BLACK, this));
 		}
 	}
+
+	// ================== FEN ==================
+
+	/** FEN of the position before the first move of {@link #getMoveHistory()}. */
+	public String getStartingFen() {
+		return startingFen;
+	}
+
+	/**
+	 * The current position in Forsyth-Edwards Notation, in the form accepted by
+	 * {@link #ChessMatch(String)}. The en passant square is written after every
+	 * double pawn push, as the FEN standard says.
+	 */
+	public String toFen() {
+		StringBuilder fen = new StringBuilder(90);
+		for (int row = 0; row < Bitboards.SIZE; row++) {
+			int emptySquares = 0;
+			for (int column = 0; column < Bitboards.SIZE; column++) {
+				ChessPiece piece = board.getPiece(Bitboards.square(row, column));
+				if (piece == null) {
+					emptySquares++;
+					continue;
+				}
+				if (emptySquares > 0) {
+					fen.append(emptySquares);
+					emptySquares = 0;
+				}
+				char letter = piece.getType().getLetter();
+				fen.append(piece.getColor() == Color.WHITE ? letter : Character.toLowerCase(letter));
+			}
+			if (emptySquares > 0) {
+				fen.append(emptySquares);
+			}
+			if (row < Bitboards.SIZE - 1) {
+				fen.append('/');
+			}
+		}
+		fen.append(currentPlayer == Color.WHITE ? " w " : " b ");
+		fen.append(castlingRightsFen()).append(' ');
+		fen.append(enPassantSquare == Bitboards.NO_SQUARE ? "-" : Move.squareName(enPassantSquare));
+		// turn conta meias-jogadas a partir de 1
+		fen.append(' ').append(halfmoveClock).append(' ').append((turn + 1) / 2);
+		return fen.toString();
+	}
+
+	private String castlingRightsFen() {
+		if (castlingRights == CastlingRights.NONE) {
+			return "-";
+		}
+		StringBuilder field = new StringBuilder(4);
+		if ((castlingRights & CastlingRights.WHITE_KINGSIDE) != 0)
+			field.append('K');
+		if ((castlingRights & CastlingRights.WHITE_QUEENSIDE) != 0)
+			field.append('Q');
+		if ((castlingRights & CastlingRights.BLACK_KINGSIDE) != 0)
+			field.append('k');
+		if ((castlingRights & CastlingRights.BLACK_QUEENSIDE) != 0)
+			field.append('q');
+		return field.toString();
+	}
+
+	private void fenSetup(String fen) {
+		String[] fields = fen.trim().split("\\s+");
+		if (fields.length < 4 || fields.length > 6) {
+			throw new ChessException("Invalid FEN, expected 4 to 6 fields: " + fen);
+		}
+		placeFenPieces(fields[0]);
+		currentPlayer = parseFenColor(fields[1]);
+		castlingRights = parseFenCastlingRights(fields[2]);
+		enPassantSquare = parseFenEnPassantSquare(fields[3]);
+		halfmoveClock = fields.length > 4 ? parseFenCounter(fields[4], 0) : 0;
+		int fullmoveNumber = fields.length > 5 ? parseFenCounter(fields[5], 1) : 1;
+		turn = 2 * (fullmoveNumber - 1) + (currentPlayer == Color.WHITE ? 1 : 2);
+
+		if (isKingInCheck(getOpponent(currentPlayer))) {
+			throw new ChessException("Invalid FEN, the side not to move is in check: " + fen);
+		}
+	}
+
+	private int parseFenCounter(String field, int min) {
+		try {
+			int value = Integer.parseInt(field);
+			if (value >= min) {
+				return value;
+			}
+		} catch (NumberFormatException e) {
+			// Cai na exceção abaixo
+		}
+		throw new ChessException("Invalid FEN move counter: " + field);
+	}
+
+	private void placeFenPieces(String placement) {
+		String[] ranks = placement.split("/");
+		if (ranks.length != Bitboards.SIZE) {
+			throw new ChessException("Invalid FEN, expected 8 ranks: " + placement);
+		}
+		for (int row = 0; row < Bitboards.SIZE; row++) {
+			int column = 0;
+			for (char c : ranks[row].toCharArray()) {
+				if (c >= '1' && c <= '8') {
+					column += c - '0';
+					continue;
+				}
+				PieceType type = PieceType.fromLetter(c);
+				if (type == null || column >= Bitboards.SIZE) {
+					throw new ChessException("Invalid FEN rank: " + ranks[row]);
+				}
+				Color color = Character.isUpperCase(c) ? Color.WHITE : Color.BLACK;
+				board.placePiece(newPiece(type, color), Bitboards.square(row, column++));
+			}
+			if (column != Bitboards.SIZE) {
+				throw new ChessException("Invalid FEN rank: " + ranks[row]);
+			}
+		}
+		BitboardPosition bitboards = board.getBitboards();
+		for (Color color : Color.values()) {
+			if (Bitboards.count(bitboards.getPieces(color, PieceType.KING)) != 1) {
+				throw new ChessException("Invalid FEN, each side needs exactly one king: " + placement);
+			}
+			if ((bitboards.getPieces(color, PieceType.PAWN) & PROMOTION_ROWS) != 0) {
+				throw new ChessException("Invalid FEN, pawns can't stand on the first or last rank: " + placement);
+			}
+		}
+	}
+
+	private Color parseFenColor(String field) {
+		if (field.equals("w")) {
+			return Color.WHITE;
+		}
+		if (field.equals("b")) {
+			return Color.BLACK;
+		}
+		throw new ChessException("Invalid FEN side to move: " + field);
+	}
+
+	private int parseFenCastlingRights(String field) {
+		int rights = CastlingRights.NONE;
+		if (field.equals("-")) {
+			return rights;
+		}
+		for (char c : field.toCharArray()) {
+			switch (c) {
+			case 'K':
+				rights |= CastlingRights.WHITE_KINGSIDE;
+				break;
+			case 'Q':
+				rights |= CastlingRights.WHITE_QUEENSIDE;
+				break;
+			case 'k':
+				rights |= CastlingRights.BLACK_KINGSIDE;
+				break;
+			case 'q':
+				rights |= CastlingRights.BLACK_QUEENSIDE;
+				break;
+			default:
+				throw new ChessException("Invalid FEN castling rights: " + field);
+			}
+		}
+		// Descarta direitos sem o rei e a torre nas casas iniciais
+		return rights & CastlingRights.supportedBy(board.getBitboards());
+	}
+
+	private int parseFenEnPassantSquare(String field) {
+		if (field.equals("-")) {
+			return Bitboards.NO_SQUARE;
+		}
+		if (field.length() != 2) {
+			throw new ChessException("Invalid FEN en passant square: " + field);
+		}
+		ChessPosition position = new ChessPosition(field.charAt(0), field.charAt(1) - '0');
+		int expectedRank = currentPlayer == Color.WHITE ? 6 : 3;
+		if (position.getRow() != expectedRank) {
+			throw new ChessException("Invalid FEN en passant square: " + field);
+		}
+		Position target = position.toPosition();
+		int square = Bitboards.square(target.getRow(), target.getColumn());
+
+		// O peão que avançou duas casas está à frente da casa alvo, e a casa de origem dele está vazia
+		int forward = currentPlayer == Color.WHITE ? Bitboards.SIZE : -Bitboards.SIZE;
+		BitboardPosition bitboards = board.getBitboards();
+		if (!Bitboards.contains(bitboards.getPieces(getOpponent(currentPlayer), PieceType.PAWN), square + forward)
+				|| bitboards.isOccupied(square) || bitboards.isOccupied(square - forward)) {
+			throw new ChessException("Invalid FEN, no pawn just moved past the en passant square: " + field);
+		}
+		return square;
+	}
 }
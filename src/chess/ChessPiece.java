@@ -1,27 +1,42 @@
 package chess;
 
-import boardgame.Board;
 import boardgame.Piece;
 import boardgame.Position;
+import chess.bitboard.Bitboards;
 
 public abstract class ChessPiece extends Piece {
 
+	private static final int MAX_PIECE_MOVES = 32;
+
 	private Color color;
 	private int moveCount;
+	private int square = Bitboards.NO_SQUARE;
+	private final Position squarePosition = new Position(0, 0);
 
-	public ChessPiece(Board board, Color color) {
+	public ChessPiece(ChessBoard board, Color color) {
 		super(board);
 		this.color = color;
 	}
 
+	@Override
+	protected ChessBoard getBoard() {
+		return (ChessBoard) super.getBoard();
+	}
+
 	public Color getColor() {
 		return color;
 	}
 	
+	public abstract PieceType getType();
+	
 	public int getMoveCount() {
 		return moveCount;
 	}
 	
+	public int getSquare() {
+		return square;
+	}
+	
 	public ChessPosition getChessPosition() {
 		return ChessPosition.fromPosition(position);
 	}
@@ -34,8 +49,71 @@ public abstract class ChessPiece extends Piece {
 		moveCount--;
 	}
 
-	protected boolean isThereOpponentPiece(Position position) {
-		ChessPiece pieceAtPosition = (ChessPiece) getBoard().getPiece(position);
-		return pieceAtPosition != null && pieceAtPosition.getColor() != this.getColor();
+	void setMoveCount(int moveCount) {
+		this.moveCount = moveCount;
+	}
+
+	void setSquare(int square) {
+		this.square = square;
+		if (square == Bitboards.NO_SQUARE) {
+			setPosition(null);
+			return;
+		}
+		// Reaproveita o mesmo objeto para não alocar a cada movimento
+		squarePosition.setValues(Bitboards.row(square), Bitboards.column(square));
+		setPosition(squarePosition);
+	}
+
+	protected long getOwnPieces() {
+		return getBoard().getBitboards().getOccupancy(color);
+	}
+
+	protected long getOccupiedSquares() {
+		return getBoard().getBitboards().getAllPieces();
+	}
+
+	protected long getOpponentPieces() {
+		return getOccupiedSquares() & ~getOwnPieces();
+	}
+
+	/**
+	 * Writes this piece's pseudo-legal moves, packed as described in {@link Move},
+	 * into {@code moves} starting at index {@code count}.
+	 *
+	 * @return the new number of moves in the buffer
+	 */
+	public int generateMoves(int[] moves, int count) {
+		return generateMoves(moves, count, Bitboards.ALL);
+	}
+
+	/**
+	 * Same as {@link #generateMoves(int[], int)} but only emits moves whose target
+	 * is in {@code targetMask}. Castling also needs the square the king passes
+	 * through; en passant captures ignore the mask.
+	 */
+	public abstract int generateMoves(int[] moves, int count, long targetMask);
+
+	/** Compatibility view of {@link #generateMoves(int[], int)} as a target matrix. */
+	@Override
+	public boolean[][] possibleMoves() {
+		int[] moves = new int[MAX_PIECE_MOVES];
+		int count = generateMoves(moves, 0);
+		boolean[][] mat = new boolean[Bitboards.SIZE][Bitboards.SIZE];
+		for (int i = 0; i < count; i++) {
+			int target = Move.to(moves[i]);
+			mat[Bitboards.row(target)][Bitboards.column(target)] = true;
+		}
+		return mat;
+	}
+
+	protected int addMoves(int[] moves, int count, long targets) {
+		long opponentPieces = getOpponentPieces();
+		while (targets != 0) {
+			int target = Bitboards.firstSquare(targets);
+			int flags = Bitboards.contains(opponentPieces, target) ? Move.CAPTURE : Move.QUIET;
+			moves[count++] = Move.of(square, target, flags);
+			targets = Bitboards.withoutFirstSquare(targets);
+		}
+		return count;
 	}
-}
\ No newline at end of file
+}
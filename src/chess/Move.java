@@ -0,0 +1,107 @@
+package chess;
+
+import chess.bitboard.Bitboards;
+
+/**
+ * Moves packed into an int so move lists can live in plain int[] buffers:
+ * bits 0-5 hold the source square, bits 6-11 the target square and bits
+ * 12-15 the flags below. Squares follow {@link Bitboards}.
+ */
+public final class Move {
+
+	public static final int NONE = 0;
+
+	public static final int QUIET = 0;
+	public static final int DOUBLE_PAWN_PUSH = 1;
+	public static final int KING_CASTLE = 2;
+	public static final int QUEEN_CASTLE = 3;
+	public static final int CAPTURE = 4;
+	public static final int EN_PASSANT = 5;
+	public static final int KNIGHT_PROMOTION = 8;
+	public static final int BISHOP_PROMOTION = 9;
+	public static final int ROOK_PROMOTION = 10;
+	public static final int QUEEN_PROMOTION = 11;
+	public static final int KNIGHT_PROMOTION_CAPTURE = 12;
+	public static final int BISHOP_PROMOTION_CAPTURE = 13;
+	public static final int ROOK_PROMOTION_CAPTURE = 14;
+	public static final int QUEEN_PROMOTION_CAPTURE = 15;
+
+	/** Largest number of moves a single position can produce, with room to spare. */
+	public static final int MAX_MOVES = 256;
+
+	private static final int PROMOTION_BIT = 8;
+	private static final int SQUARE_MASK = 0x3F;
+	private static final int TARGET_SHIFT = 6;
+	private static final int FLAGS_SHIFT = 12;
+	private static final PieceType[] PROMOTION_TYPES = { PieceType.KNIGHT, PieceType.BISHOP, PieceType.ROOK,
+			PieceType.QUEEN };
+
+	private Move() {
+	}
+
+	public static int of(int from, int to, int flags) {
+		return from | (to << TARGET_SHIFT) | (flags << FLAGS_SHIFT);
+	}
+
+	public static int from(int move) {
+		return move & SQUARE_MASK;
+	}
+
+	public static int to(int move) {
+		return (move >>> TARGET_SHIFT) & SQUARE_MASK;
+	}
+
+	public static int flags(int move) {
+		return (move >>> FLAGS_SHIFT) & 0xF;
+	}
+
+	public static boolean isCapture(int move) {
+		return (flags(move) & CAPTURE) != 0;
+	}
+
+	public static boolean isEnPassant(int move) {
+		return flags(move) == EN_PASSANT;
+	}
+
+	public static boolean isCastling(int move) {
+		int flags = flags(move);
+		return flags == KING_CASTLE || flags == QUEEN_CASTLE;
+	}
+
+	public static boolean isPromotion(int move) {
+		return (flags(move) & PROMOTION_BIT) != 0;
+	}
+
+	public static PieceType promotionType(int move) {
+		return isPromotion(move) ? PROMOTION_TYPES[flags(move) & 3] : null;
+	}
+
+	public static int promotionFlags(PieceType type, boolean capture) {
+		int flags = PROMOTION_BIT | (capture ? CAPTURE : 0);
+		switch (type) {
+		case KNIGHT:
+			return flags;
+		case BISHOP:
+			return flags | 1;
+		case ROOK:
+			return flags | 2;
+		case QUEEN:
+			return flags | 3;
+		default:
+			throw new IllegalArgumentException("Pawns can't promote to " + type);
+		}
+	}
+
+	public static String squareName(int square) {
+		return "" + (char) ('a' + Bitboards.column(square)) + (Bitboards.SIZE - Bitboards.row(square));
+	}
+
+	/** Coordinate notation, e.g. "e2e4" or "e7e8q". */
+	public static String toString(int move) {
+		String text = squareName(from(move)) + squareName(to(move));
+		if (isPromotion(move)) {
+			text += Character.toLowerCase(promotionType(move).getLetter());
+		}
+		return text;
+	}
+}
@@ -0,0 +1,30 @@
+package chess;
+
+public enum PieceType {
+    PAWN('P'),
+    KNIGHT('N'),
+    BISHOP('B'),
+    ROOK('R'),
+    QUEEN('Q'),
+    KING('K');
+
+    private final char letter;
+
+    PieceType(char letter) {
+        this.letter = letter;
+    }
+
+    public char getLetter() {
+        return letter;
+    }
+
+    public static PieceType fromLetter(char letter) {
+        char upperCase = Character.toUpperCase(letter);
+        for (PieceType type : values()) {
+            if (type.letter == upperCase) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,21 @@
+package chess;
+
+/**
+ * Everything {@link ChessMatch#undoMove()} needs to restore the position as it
+ * was before a move. Records are preallocated and reused by the undo stack.
+ */
+final class UndoRecord {
+
+	int move;
+	ChessPiece movedPiece;
+	ChessPiece capturedPiece;
+	int enPassantSquare;
+	int castlingRights;
+	int halfmoveClock;
+	long hash;
+
+	void clear() {
+		movedPiece = null;
+		capturedPiece = null;
+	}
+}
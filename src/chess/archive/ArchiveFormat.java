@@ -0,0 +1,149 @@
+package chess.archive;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+import chess.exceptions.ChessException;
+
+/**
+ * Layout shared by {@link GameArchiveWriter} and {@link GameArchive}. All
+ * numbers are big-endian.
+ *
+ * <pre>
+ * header   magic (int), version (int)
+ * records  one per game, back to back
+ * index    offset of every record (long each)
+ * trailer  index offset (long), game count (int), magic (int)
+ * </pre>
+ *
+ * A record is the result (byte), the move count (varint), every move as the
+ * 16 bits of {@link chess.Move}, the tag count (varint) and the tags. A tag
+ * name is one varint: below {@link #TAG_NAMES}' size it is an index into that
+ * list, otherwise it is the name's UTF-8 length plus that size, followed by
+ * the bytes. Values are a varint length and UTF-8 bytes.
+ *
+ * <p>
+ * Written data is never overwritten: a writer that reopens the archive
+ * appends its records after the old trailer and then a new index and
+ * trailer, so the index and trailer of earlier sessions stay between the
+ * records as unused bytes. If the file doesn't end with a valid trailer,
+ * because a writer stopped before closing, the last valid one before it
+ * still describes every game committed until then.
+ */
+final class ArchiveFormat {
+
+	static final int MAGIC = 0x43474131; // "CGA1"
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 8;
+	static final int TRAILER_SIZE = 16;
+	private static final int SCAN_CHUNK = 1 << 16;
+
+	static final List<String> RESULTS = List.of("*", "1-0", "0-1", "1/2-1/2");
+
+	// Tags mais comuns ocupam um único byte
+	static final List<String> TAG_NAMES = List.of("Event", "Site", "Date", "Round", "White", "Black", "Result",
+			"WhiteElo", "BlackElo", "ECO", "Opening", "TimeControl", "Termination", "SetUp", "FEN", "PlyCount");
+
+	private ArchiveFormat() {
+	}
+
+	static int resultCode(String result) {
+		int code = RESULTS.indexOf(result);
+		if (code < 0) {
+			throw new ChessException("Invalid game result " + result);
+		}
+		return code;
+	}
+
+	static String result(int code) {
+		if (code < 0 || code >= RESULTS.size()) {
+			throw corrupt("result code " + code);
+		}
+		return RESULTS.get(code);
+	}
+
+	/**
+	 * Reads the header and the last valid trailer and returns {index offset,
+	 * game count}. The file may go on after that trailer.
+	 */
+	static long[] readLayout(FileChannel channel) throws IOException {
+		long size = channel.size();
+		if (size < HEADER_SIZE + TRAILER_SIZE) {
+			throw corrupt("file too short");
+		}
+		ByteBuffer header = read(channel, 0, HEADER_SIZE);
+		if (header.getInt() != MAGIC) {
+			throw new ChessException("Not a game archive");
+		}
+		int version = header.getInt();
+		if (version != VERSION) {
+			throw new ChessException("Unsupported game archive version " + version);
+		}
+		long[] layout = layoutEndingAt(channel, size);
+		if (layout == null) {
+			// Escritor que não foi fechado: vale o último trailer completo
+			layout = lastLayoutBefore(channel, size);
+		}
+		if (layout == null) {
+			throw corrupt("missing or invalid index");
+		}
+		if (8L * layout[1] > Integer.MAX_VALUE) {
+			throw new ChessException("Game archive index too large: " + layout[1] + " games");
+		}
+		return layout;
+	}
+
+	/** End of the trailer of {@code layout}, which is where its archive's committed data ends. */
+	static long end(long[] layout) {
+		return layout[0] + 8L * layout[1] + TRAILER_SIZE;
+	}
+
+	private static long[] layoutEndingAt(FileChannel channel, long end) throws IOException {
+		ByteBuffer trailer = read(channel, end - TRAILER_SIZE, TRAILER_SIZE);
+		long indexOffset = trailer.getLong();
+		int games = trailer.getInt();
+		if (trailer.getInt() != MAGIC || games < 0 || indexOffset < HEADER_SIZE
+				|| indexOffset + 8L * games + TRAILER_SIZE != end) {
+			return null;
+		}
+		return new long[] { indexOffset, games };
+	}
+
+	private static long[] lastLayoutBefore(FileChannel channel, long size) throws IOException {
+		long minimum = HEADER_SIZE + TRAILER_SIZE;
+		long end = size;
+		while (end >= minimum) {
+			long start = Math.max(minimum - 4, end - SCAN_CHUNK);
+			ByteBuffer chunk = read(channel, start, (int) (end - start));
+			for (int i = chunk.limit() - 4; i >= 0; i--) {
+				if (chunk.getInt(i) == MAGIC) {
+					long[] layout = layoutEndingAt(channel, start + i + 4);
+					if (layout != null) {
+						return layout;
+					}
+				}
+			}
+			// Sobreposição de 3 bytes para não perder um magic entre dois blocos
+			end = start + 3;
+		}
+		return null;
+	}
+
+	/** Reads {@code length} bytes at {@code position} without moving the channel. */
+	static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw new EOFException("Game archive ends at " + (position + buffer.position()));
+			}
+		}
+		return buffer.flip();
+	}
+
+	static ChessException corrupt(String detail) {
+		return new ChessException("Corrupt game archive: " + detail);
+	}
+}
@@ -0,0 +1,153 @@
+package chess.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import chess.pgn.PgnGame;
+
+/**
+ * Read-only, memory-mapped view of an archive written by
+ * {@link GameArchiveWriter}. Game {@code n} is found through the offset
+ * index in O(1) and only its own record is decoded. Reads do not change any
+ * shared state, so one archive can serve several threads.
+ */
+public class GameArchive implements Closeable {
+
+	// Registros são mapeados em segmentos, já que um ByteBuffer não passa de 2 GB
+	private static final long SEGMENT_SIZE = 1L << 30;
+
+	private final FileChannel channel;
+	private final long indexOffset;
+	private final int count;
+	private final MappedByteBuffer index;
+	private final MappedByteBuffer[] segments;
+
+	public GameArchive(Path path) throws IOException {
+		channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			long[] layout = ArchiveFormat.readLayout(channel);
+			indexOffset = layout[0];
+			count = (int) layout[1];
+			index = channel.map(FileChannel.MapMode.READ_ONLY, indexOffset, 8L * count);
+			segments = new MappedByteBuffer[(int) ((indexOffset + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+			for (int i = 0; i < segments.length; i++) {
+				long start = i * SEGMENT_SIZE;
+				long end = Math.min(indexOffset, start + SEGMENT_SIZE);
+				segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+			}
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/** Number of games in the archive. */
+	public int size() {
+		return count;
+	}
+
+	public PgnGame read(int game) throws IOException {
+		ByteBuffer record = record(game);
+		String result = ArchiveFormat.result(record.get());
+		int[] moves = readMoves(record);
+		int tagCount = readVarint(record);
+		Map<String, String> tags = new LinkedHashMap<>();
+		for (int i = 0; i < tagCount; i++) {
+			int name = readVarint(record);
+			String key = name < ArchiveFormat.TAG_NAMES.size() ? ArchiveFormat.TAG_NAMES.get(name)
+					: readString(record, name - ArchiveFormat.TAG_NAMES.size());
+			tags.put(key, readString(record, readVarint(record)));
+		}
+		return new PgnGame(tags, moves, result);
+	}
+
+	/** Moves of {@code game}, packed as in {@link chess.Move}, without decoding its tags. */
+	public int[] readMoves(int game) throws IOException {
+		ByteBuffer record = record(game);
+		record.get();
+		return readMoves(record);
+	}
+
+	/** Value of one tag of {@code game}, or null when the game doesn't have it. */
+	public String readTag(int game, String name) throws IOException {
+		ByteBuffer record = record(game);
+		record.get();
+		int moveCount = readVarint(record);
+		record.position(record.position() + 2 * moveCount);
+		int id = ArchiveFormat.TAG_NAMES.indexOf(name);
+		int tagCount = readVarint(record);
+		for (int i = 0; i < tagCount; i++) {
+			int key = readVarint(record);
+			boolean matches = key == id;
+			if (key >= ArchiveFormat.TAG_NAMES.size()) {
+				matches = readString(record, key - ArchiveFormat.TAG_NAMES.size()).equals(name);
+			}
+			int length = readVarint(record);
+			if (matches) {
+				return readString(record, length);
+			}
+			record.position(record.position() + length);
+		}
+		return null;
+	}
+
+	public String readResult(int game) throws IOException {
+		return ArchiveFormat.result(record(game).get());
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	private ByteBuffer record(int game) throws IOException {
+		Objects.checkIndex(game, count);
+		long start = index.getLong(8 * game);
+		long end = game + 1 < count ? index.getLong(8 * (game + 1)) : indexOffset;
+		if (start < ArchiveFormat.HEADER_SIZE || end < start || end > indexOffset) {
+			throw ArchiveFormat.corrupt("bad offset for game " + game);
+		}
+		int segment = (int) (start / SEGMENT_SIZE);
+		long segmentStart = segment * SEGMENT_SIZE;
+		if (end <= segmentStart + SEGMENT_SIZE) {
+			return segments[segment].slice((int) (start - segmentStart), (int) (end - start));
+		}
+		// Raro: registro atravessa a fronteira entre dois segmentos
+		return ArchiveFormat.read(channel, start, (int) (end - start));
+	}
+
+	private static int[] readMoves(ByteBuffer record) {
+		int[] moves = new int[readVarint(record)];
+		for (int i = 0; i < moves.length; i++) {
+			moves[i] = record.getShort() & 0xFFFF;
+		}
+		return moves;
+	}
+
+	private static String readString(ByteBuffer record, int length) {
+		byte[] bytes = new byte[length];
+		record.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static int readVarint(ByteBuffer record) {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			int b = record.get();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw ArchiveFormat.corrupt("varint too long");
+	}
+}
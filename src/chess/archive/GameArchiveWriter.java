@@ -0,0 +1,177 @@
+package chess.archive;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+
+import chess.ChessMatch;
+import chess.pgn.PgnGame;
+
+/**
+ * Appends games to a binary archive (see {@link ArchiveFormat}), creating it
+ * or continuing an existing one. The games become part of the archive when
+ * {@link #close()} writes their index and syncs the file; until then, and if
+ * the writer never gets there, readers see the archive as it was when the
+ * writer opened it. Reopening never overwrites what is already there.
+ */
+public class GameArchiveWriter implements Closeable {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final FileChannel channel;
+	private final DataOutputStream out;
+	private long position;
+	private long[] offsets = new long[1024];
+	private int count;
+	private int committed;
+	private byte[] record = new byte[512];
+	private int length;
+
+	public GameArchiveWriter(Path path) throws IOException {
+		channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+				StandardOpenOption.CREATE);
+		try {
+			if (channel.size() == 0) {
+				writeEmptyArchive();
+			}
+			readIndex();
+			channel.position(position);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+		out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+	}
+
+	/** Number of games in the archive, including the ones already there when it was opened. */
+	public int size() {
+		return count;
+	}
+
+	/** Appends the game played so far in {@code match}; see {@link PgnGame#fromMatch}. */
+	public int write(ChessMatch match, Map<String, String> tags) throws IOException {
+		return write(PgnGame.fromMatch(match, tags));
+	}
+
+	/** Appends {@code game} and returns its index. */
+	public int write(PgnGame game) throws IOException {
+		length = 0;
+		putByte(ArchiveFormat.resultCode(game.getResult()));
+		putVarint(game.getMoveCount());
+		for (int i = 0; i < game.getMoveCount(); i++) {
+			int move = game.getMove(i);
+			putByte(move >>> 8);
+			putByte(move);
+		}
+		putVarint(game.getTags().size());
+		for (Map.Entry<String, String> tag : game.getTags().entrySet()) {
+			int name = ArchiveFormat.TAG_NAMES.indexOf(tag.getKey());
+			if (name >= 0) {
+				putVarint(name);
+			} else {
+				byte[] bytes = tag.getKey().getBytes(StandardCharsets.UTF_8);
+				putVarint(ArchiveFormat.TAG_NAMES.size() + bytes.length);
+				putBytes(bytes);
+			}
+			byte[] value = tag.getValue().getBytes(StandardCharsets.UTF_8);
+			putVarint(value.length);
+			putBytes(value);
+		}
+
+		if (count == offsets.length) {
+			offsets = Arrays.copyOf(offsets, count * 2);
+		}
+		offsets[count] = position;
+		out.write(record, 0, length);
+		position += length;
+		return count++;
+	}
+
+	/**
+	 * Writes the index of every game, old and new, and the trailer after the
+	 * new records, syncs the file and closes it. Nothing is written if no game
+	 * was added.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			if (count > committed) {
+				long indexOffset = position;
+				for (int i = 0; i < count; i++) {
+					out.writeLong(offsets[i]);
+				}
+				out.writeLong(indexOffset);
+				out.writeInt(count);
+				out.writeInt(ArchiveFormat.MAGIC);
+				out.flush();
+				channel.force(true);
+			}
+		} finally {
+			channel.close();
+		}
+	}
+
+	// Um arquivo novo já nasce com um índice vazio, para sempre haver um trailer válido
+	private void writeEmptyArchive() throws IOException {
+		ByteBuffer empty = ByteBuffer.allocate(ArchiveFormat.HEADER_SIZE + ArchiveFormat.TRAILER_SIZE);
+		empty.putInt(ArchiveFormat.MAGIC).putInt(ArchiveFormat.VERSION);
+		empty.putLong(ArchiveFormat.HEADER_SIZE).putInt(0).putInt(ArchiveFormat.MAGIC).flip();
+		while (empty.hasRemaining()) {
+			channel.write(empty, empty.position());
+		}
+		channel.force(true);
+	}
+
+	private void readIndex() throws IOException {
+		long[] layout = ArchiveFormat.readLayout(channel);
+		long indexOffset = layout[0];
+		int games = (int) layout[1];
+		ByteBuffer index = ArchiveFormat.read(channel, indexOffset, 8 * games);
+		offsets = new long[Math.max(offsets.length, games * 2)];
+		for (int i = 0; i < games; i++) {
+			offsets[i] = index.getLong();
+		}
+		count = games;
+		committed = games;
+		// Os jogos novos vão depois do trailer; o que um escritor interrompido
+		// deixou além dele nunca chegou a fazer parte do arquivo
+		position = ArchiveFormat.end(layout);
+		if (channel.size() > position) {
+			channel.truncate(position);
+		}
+	}
+
+	private void putVarint(int value) {
+		while ((value & ~0x7F) != 0) {
+			putByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		putByte(value);
+	}
+
+	private void putBytes(byte[] bytes) {
+		ensureCapacity(bytes.length);
+		System.arraycopy(bytes, 0, record, length, bytes.length);
+		length += bytes.length;
+	}
+
+	private void putByte(int value) {
+		ensureCapacity(1);
+		record[length++] = (byte) value;
+	}
+
+	private void ensureCapacity(int extra) {
+		if (length + extra > record.length) {
+			record = Arrays.copyOf(record, Math.max(record.length * 2, length + extra));
+		}
+	}
+}
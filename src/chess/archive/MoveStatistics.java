@@ -0,0 +1,62 @@
+package chess.archive;
+
+import chess.Move;
+
+/** How often a move was played from a position, and how those games ended. */
+public class MoveStatistics {
+
+	private final int move;
+	private int games;
+	private int whiteWins;
+	private int draws;
+	private int blackWins;
+
+	MoveStatistics(int move) {
+		this.move = move;
+	}
+
+	MoveStatistics(int move, int games, int whiteWins, int draws, int blackWins) {
+		this.move = move;
+		this.games = games;
+		this.whiteWins = whiteWins;
+		this.draws = draws;
+		this.blackWins = blackWins;
+	}
+
+	void add(String result) {
+		games++;
+		if (result.equals("1-0")) {
+			whiteWins++;
+		} else if (result.equals("0-1")) {
+			blackWins++;
+		} else if (result.equals("1/2-1/2")) {
+			draws++;
+		}
+	}
+
+	public int getMove() {
+		return move;
+	}
+
+	/** Games in which the move was played, each counted once. */
+	public int getGames() {
+		return games;
+	}
+
+	public int getWhiteWins() {
+		return whiteWins;
+	}
+
+	public int getDraws() {
+		return draws;
+	}
+
+	public int getBlackWins() {
+		return blackWins;
+	}
+
+	@Override
+	public String toString() {
+		return Move.toString(move) + " " + games + " games +" + whiteWins + " =" + draws + " -" + blackWins;
+	}
+}
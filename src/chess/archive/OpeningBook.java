@@ -0,0 +1,130 @@
+package chess.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import chess.ChessMatch;
+import chess.Move;
+import chess.exceptions.ChessException;
+
+/**
+ * Opening book written by {@link OpeningBookBuilder}, probed by position hash
+ * with a binary search over the memory-mapped file.
+ *
+ * <pre>
+ * header   magic (int), version (int)
+ * entries  hash (long), move (short), unused (short), games, white wins,
+ *          draws, black wins (int each), unused (int)
+ * </pre>
+ *
+ * Entries are sorted by hash, unsigned, then by move. The entries stay in the
+ * page cache rather than on the heap, so engines in the same JVM can share one
+ * book and processes on the same host share the mapped pages. Probes are
+ * read-only and thread-safe.
+ */
+public class OpeningBook implements Closeable {
+
+	static final int MAGIC = 0x434F4231; // "COB1"
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 8;
+	static final int ENTRY_SIZE = 32;
+
+	private final FileChannel channel;
+	private final MappedByteBuffer entries;
+	private final int count;
+
+	public OpeningBook(Path path) throws IOException {
+		channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			ByteBuffer header = ArchiveFormat.read(channel, 0, HEADER_SIZE);
+			if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+				throw new ChessException("Not an opening book: " + path);
+			}
+			long bytes = channel.size() - HEADER_SIZE;
+			if (bytes % ENTRY_SIZE != 0 || bytes > Integer.MAX_VALUE) {
+				throw new ChessException("Corrupt or oversized opening book: " + path);
+			}
+			count = (int) (bytes / ENTRY_SIZE);
+			entries = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, bytes);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/** Number of (position, move) entries. */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * The book moves of {@code match}'s position, most played first. Moves that
+	 * aren't legal there, which only a hash collision could produce, are left out.
+	 */
+	public List<MoveStatistics> probe(ChessMatch match) {
+		long hash = match.getHash();
+		List<MoveStatistics> moves = new ArrayList<>();
+		for (int i = lowerBound(hash); i < count && entries.getLong(i * ENTRY_SIZE) == hash; i++) {
+			int offset = i * ENTRY_SIZE;
+			int move = entries.getShort(offset + 8) & 0xFFFF;
+			if (match.isLegalMove(move)) {
+				moves.add(new MoveStatistics(move, entries.getInt(offset + 12), entries.getInt(offset + 16),
+						entries.getInt(offset + 20), entries.getInt(offset + 24)));
+			}
+		}
+		moves.sort(Comparator.comparingInt(MoveStatistics::getGames).reversed());
+		return moves;
+	}
+
+	/**
+	 * A book move for {@code match}, chosen at random with a probability
+	 * proportional to the number of games that played it, or
+	 * {@link Move#NONE} when the position is out of book.
+	 */
+	public int pick(ChessMatch match, Random random) {
+		List<MoveStatistics> moves = probe(match);
+		long total = 0;
+		for (MoveStatistics move : moves) {
+			total += move.getGames();
+		}
+		if (total == 0) {
+			return Move.NONE;
+		}
+		long ticket = (long) (random.nextDouble() * total);
+		for (MoveStatistics move : moves) {
+			ticket -= move.getGames();
+			if (ticket < 0) {
+				return move.getMove();
+			}
+		}
+		return moves.get(moves.size() - 1).getMove();
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	private int lowerBound(long hash) {
+		int low = 0;
+		int high = count;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (Long.compareUnsigned(entries.getLong(middle * ENTRY_SIZE), hash) < 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+}
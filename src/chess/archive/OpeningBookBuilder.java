@@ -0,0 +1,109 @@
+package chess.archive;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import chess.Move;
+
+/**
+ * Aggregates the first plies of every game of an archive into an
+ * {@link OpeningBook}: for each position, how many games played each move
+ * and how they ended. The positions are sorted through a temporary
+ * {@link PositionIndex}, so the book can be built from archives of any size.
+ */
+public class OpeningBookBuilder {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final int DEFAULT_RUN_ENTRIES = 1 << 22;
+
+	private final int maxPlies;
+	private final int minGames;
+
+	/**
+	 * @param maxPlies depth of the book, in plies from each game's start
+	 * @param minGames moves played in fewer games are left out
+	 */
+	public OpeningBookBuilder(int maxPlies, int minGames) {
+		if (maxPlies < 1 || minGames < 1) {
+			throw new IllegalArgumentException("maxPlies and minGames must be at least 1");
+		}
+		this.maxPlies = maxPlies;
+		this.minGames = minGames;
+	}
+
+	/** Writes the book of {@code archive} to {@code output} and returns its number of entries. */
+	public long build(GameArchive archive, Path output) throws IOException {
+		Path positions = Files.createTempFile(output.toAbsolutePath().getParent(), "book", ".positions");
+		try {
+			// Posições até o ply maxPlies - 1, cada uma com o lance jogado a partir dela
+			new PositionIndexBuilder(DEFAULT_RUN_ENTRIES, maxPlies - 1).build(archive, positions);
+			try (PositionIndex index = new PositionIndex(positions);
+					DataOutputStream out = new DataOutputStream(
+							new BufferedOutputStream(Files.newOutputStream(output), BUFFER_SIZE))) {
+				out.writeInt(OpeningBook.MAGIC);
+				out.writeInt(OpeningBook.VERSION);
+				return writeEntries(index, out);
+			}
+		} finally {
+			Files.deleteIfExists(positions);
+		}
+	}
+
+	private long writeEntries(PositionIndex index, DataOutputStream out) throws IOException {
+		long written = 0;
+		long[] played = new long[64];
+		long size = index.size();
+		long first = 0;
+		while (first < size) {
+			long hash = index.hashAt(first);
+			int count = 0;
+			for (long i = first; i < size && index.hashAt(i) == hash; i++, count++) {
+				if (count == played.length) {
+					played = Arrays.copyOf(played, count * 2);
+				}
+				long data = index.dataAt(i);
+				// Lance nos bits altos, para agrupar ao ordenar; o bit de sinal invertido
+				// faz a ordenação com sinal seguir a ordem sem sinal dos lances
+				played[count] = ((data & 0xFFFF) << 48 | (data >>> 32) << 16 | (data >>> 16 & 0xFFFF))
+						^ Long.MIN_VALUE;
+			}
+			first += count;
+			Arrays.sort(played, 0, count);
+			for (int i = 0; i < count; i++) {
+				played[i] ^= Long.MIN_VALUE;
+			}
+
+			int i = 0;
+			while (i < count) {
+				int move = (int) (played[i] >>> 48);
+				int[] results = new int[ArchiveFormat.RESULTS.size()];
+				int games = 0;
+				for (; i < count && played[i] >>> 48 == move; i++) {
+					// Cada jogo conta uma vez por lance
+					if (i > 0 && played[i] >>> 16 == played[i - 1] >>> 16) {
+						continue;
+					}
+					results[(int) (played[i] & 0xFFFF)]++;
+					games++;
+				}
+				if (move == Move.NONE || games < minGames) {
+					continue;
+				}
+				out.writeLong(hash);
+				out.writeShort(move);
+				out.writeShort(0);
+				out.writeInt(games);
+				out.writeInt(results[ArchiveFormat.RESULTS.indexOf("1-0")]);
+				out.writeInt(results[ArchiveFormat.RESULTS.indexOf("1/2-1/2")]);
+				out.writeInt(results[ArchiveFormat.RESULTS.indexOf("0-1")]);
+				out.writeInt(0);
+				written++;
+			}
+		}
+		return written;
+	}
+}
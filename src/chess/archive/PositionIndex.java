@@ -0,0 +1,173 @@
+package chess.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import chess.ChessMatch;
+import chess.Move;
+import chess.exceptions.ChessException;
+
+/**
+ * Which games of a {@link GameArchive} reached a position, looked up by the
+ * position's Zobrist hash in an index built by {@link PositionIndexBuilder}.
+ *
+ * <pre>
+ * header   magic (int), version (int), entry count (long)
+ * buckets  first entry of every 16-bit hash prefix, plus the end (long each)
+ * entries  hash (long), game &lt;&lt; 32 | result &lt;&lt; 16 | next move (long)
+ * </pre>
+ *
+ * Entries are sorted by hash, unsigned, and then by game. The bucket table
+ * narrows each lookup to a few entries, so a query touches a handful of
+ * pages of the mapped file however many games it covers.
+ */
+public class PositionIndex implements Closeable {
+
+	static final int MAGIC = 0x43504931; // "CPI1"
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 16;
+	static final int PREFIX_BITS = 16;
+	static final int BUCKETS = 1 << PREFIX_BITS;
+	static final int ENTRY_SIZE = 16;
+	static final long ENTRIES_OFFSET = HEADER_SIZE + 8L * (BUCKETS + 1);
+
+	// 2^26 entradas de 16 bytes: segmentos de 1 GB
+	private static final int SEGMENT_BITS = 26;
+	private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+
+	private final FileChannel channel;
+	private final long count;
+	private final long[] buckets = new long[BUCKETS + 1];
+	private final MappedByteBuffer[] segments;
+
+	public PositionIndex(Path path) throws IOException {
+		channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			ByteBuffer header = ArchiveFormat.read(channel, 0, HEADER_SIZE);
+			if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+				throw new ChessException("Not a position index: " + path);
+			}
+			count = header.getLong();
+			if (count < 0 || ENTRIES_OFFSET + count * ENTRY_SIZE != channel.size()) {
+				throw new ChessException("Corrupt position index: " + path);
+			}
+			ArchiveFormat.read(channel, HEADER_SIZE, 8 * (BUCKETS + 1)).asLongBuffer().get(buckets);
+
+			segments = new MappedByteBuffer[(int) ((count + SEGMENT_MASK) >>> SEGMENT_BITS)];
+			for (int i = 0; i < segments.length; i++) {
+				long first = (long) i << SEGMENT_BITS;
+				long entries = Math.min(count - first, 1L << SEGMENT_BITS);
+				segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, ENTRIES_OFFSET + first * ENTRY_SIZE,
+						entries * ENTRY_SIZE);
+			}
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/** Number of positions indexed, counting every ply of every game. */
+	public long size() {
+		return count;
+	}
+
+	public int[] findGames(ChessMatch match) {
+		return findGames(match.getHash());
+	}
+
+	/** Games that reached the position with {@code hash}, in ascending order and each once. */
+	public int[] findGames(long hash) {
+		long first = lowerBound(hash);
+		int[] games = new int[16];
+		int found = 0;
+		for (long i = first; i < count && hashAt(i) == hash; i++) {
+			int game = (int) (dataAt(i) >>> 32);
+			if (found > 0 && games[found - 1] == game) {
+				continue;
+			}
+			if (found == games.length) {
+				games = Arrays.copyOf(games, found * 2);
+			}
+			games[found++] = game;
+		}
+		return Arrays.copyOf(games, found);
+	}
+
+	public List<MoveStatistics> nextMoves(ChessMatch match) {
+		return nextMoves(match.getHash());
+	}
+
+	/**
+	 * The moves played from the position with {@code hash}, most played first.
+	 * A game that went through the position more than once counts once for
+	 * each different move it played there.
+	 */
+	public List<MoveStatistics> nextMoves(long hash) {
+		long first = lowerBound(hash);
+		long last = first;
+		while (last < count && hashAt(last) == hash) {
+			last++;
+		}
+		// Ordena por lance e depois por jogo para contar cada jogo uma vez por lance
+		long[] played = new long[(int) (last - first)];
+		for (int i = 0; i < played.length; i++) {
+			long data = dataAt(first + i);
+			played[i] = (data & 0xFFFF) << 48 | (data >>> 32) << 16 | (data >>> 16 & 0xFFFF);
+		}
+		Arrays.sort(played);
+
+		List<MoveStatistics> moves = new ArrayList<>();
+		MoveStatistics current = null;
+		for (int i = 0; i < played.length; i++) {
+			int move = (int) (played[i] >>> 48);
+			if (move == Move.NONE || (i > 0 && played[i] >>> 16 == played[i - 1] >>> 16)) {
+				continue;
+			}
+			if (current == null || current.getMove() != move) {
+				current = new MoveStatistics(move);
+				moves.add(current);
+			}
+			current.add(ArchiveFormat.result((int) (played[i] & 0xFFFF)));
+		}
+		moves.sort(Comparator.comparingInt(MoveStatistics::getGames).reversed());
+		return moves;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/** First entry whose hash is not below {@code hash}. */
+	private long lowerBound(long hash) {
+		int bucket = (int) (hash >>> (Long.SIZE - PREFIX_BITS));
+		long low = buckets[bucket];
+		long high = buckets[bucket + 1];
+		while (low < high) {
+			long middle = (low + high) >>> 1;
+			if (Long.compareUnsigned(hashAt(middle), hash) < 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	long hashAt(long entry) {
+		return segments[(int) (entry >>> SEGMENT_BITS)].getLong((int) (entry & SEGMENT_MASK) * ENTRY_SIZE);
+	}
+
+	long dataAt(long entry) {
+		return segments[(int) (entry >>> SEGMENT_BITS)].getLong((int) (entry & SEGMENT_MASK) * ENTRY_SIZE + 8);
+	}
+}
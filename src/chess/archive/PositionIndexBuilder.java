@@ -0,0 +1,293 @@
+package chess.archive;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import chess.ChessMatch;
+import chess.Move;
+
+/**
+ * Builds a {@link PositionIndex} by replaying every game of an archive and
+ * recording each position it reached with the move played from there. The
+ * entries are sorted in runs of fixed size that are spilled to temporary files
+ * next to the output and merged at the end, so archives of any size are
+ * indexed within a bounded heap.
+ */
+public class PositionIndexBuilder {
+
+	private static final int DEFAULT_RUN_ENTRIES = 1 << 22;
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final int runEntries;
+	private final int maxPlies;
+	private long[] hashes;
+	private long[] data;
+	private long[] sortedHashes;
+	private long[] sortedData;
+	private int size;
+	private final List<Path> runs = new ArrayList<>();
+
+	public PositionIndexBuilder() {
+		this(DEFAULT_RUN_ENTRIES, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * @param runEntries entries sorted in memory at a time; each takes 32 bytes
+	 * @param maxPlies   positions deeper than this many plies into a game are
+	 *                   left out
+	 */
+	public PositionIndexBuilder(int runEntries, int maxPlies) {
+		if (runEntries < 1) {
+			throw new IllegalArgumentException("runEntries must be at least 1");
+		}
+		if (maxPlies < 0) {
+			throw new IllegalArgumentException("maxPlies must not be negative");
+		}
+		this.runEntries = runEntries;
+		this.maxPlies = maxPlies;
+	}
+
+	/** Indexes every game of {@code archive} into {@code output} and returns the number of entries. */
+	public long build(GameArchive archive, Path output) throws IOException {
+		hashes = new long[runEntries];
+		data = new long[runEntries];
+		sortedHashes = new long[runEntries];
+		sortedData = new long[runEntries];
+		size = 0;
+		runs.clear();
+		try {
+			ChessMatch initialPosition = new ChessMatch();
+			for (int game = 0; game < archive.size(); game++) {
+				String fen = archive.readTag(game, "FEN");
+				ChessMatch match = fen == null ? initialPosition : new ChessMatch(fen);
+				int result = ArchiveFormat.resultCode(archive.readResult(game));
+				int[] moves = archive.readMoves(game);
+				int plies = Math.min(moves.length, maxPlies);
+				long gameData = (long) game << 32 | (long) result << 16;
+				for (int i = 0; i < plies; i++) {
+					add(match.getHash(), gameData | moves[i], output);
+					match.makeMove(moves[i]);
+				}
+				// A última posição também conta, com o lance seguinte se houver
+				add(match.getHash(), gameData | (plies < moves.length ? moves[plies] : Move.NONE), output);
+				if (match == initialPosition) {
+					for (int i = 0; i < plies; i++) {
+						match.undoMove();
+					}
+				}
+			}
+			if (!runs.isEmpty()) {
+				return mergeRuns(output);
+			}
+			sortRun();
+			return writeIndex(output, new MemoryRun());
+		} finally {
+			for (Path run : runs) {
+				Files.deleteIfExists(run);
+			}
+			hashes = data = sortedHashes = sortedData = null;
+		}
+	}
+
+	private void add(long hash, long entryData, Path output) throws IOException {
+		if (size == runEntries) {
+			spillRun(output);
+		}
+		hashes[size] = hash;
+		data[size] = entryData;
+		size++;
+	}
+
+	private void spillRun(Path output) throws IOException {
+		sortRun();
+		Path run = Files.createTempFile(output.toAbsolutePath().getParent(), "positions", ".run");
+		runs.add(run);
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(run), BUFFER_SIZE))) {
+			for (int i = 0; i < size; i++) {
+				out.writeLong(hashes[i]);
+				out.writeLong(data[i]);
+			}
+		}
+		size = 0;
+	}
+
+	/**
+	 * LSD radix sort by hash, one byte per pass. Being stable, it keeps the
+	 * entries of each hash in game order.
+	 */
+	private void sortRun() {
+		int[] counts = new int[256];
+		for (int shift = 0; shift < Long.SIZE; shift += 8) {
+			Arrays.fill(counts, 0);
+			for (int i = 0; i < size; i++) {
+				counts[(int) (hashes[i] >>> shift) & 0xFF]++;
+			}
+			if (counts[(int) (hashes[0] >>> shift) & 0xFF] == size) {
+				// Todos iguais neste byte: a passada não mudaria nada
+				continue;
+			}
+			int position = 0;
+			for (int b = 0; b < counts.length; b++) {
+				int count = counts[b];
+				counts[b] = position;
+				position += count;
+			}
+			for (int i = 0; i < size; i++) {
+				int target = counts[(int) (hashes[i] >>> shift) & 0xFF]++;
+				sortedHashes[target] = hashes[i];
+				sortedData[target] = data[i];
+			}
+			long[] swap = hashes;
+			hashes = sortedHashes;
+			sortedHashes = swap;
+			swap = data;
+			data = sortedData;
+			sortedData = swap;
+		}
+	}
+
+	private long mergeRuns(Path output) throws IOException {
+		spillRun(output);
+		List<FileRun> open = new ArrayList<>(runs.size());
+		try {
+			for (int i = 0; i < runs.size(); i++) {
+				open.add(new FileRun(runs.get(i), i));
+			}
+			return writeIndex(output, new MergedRun(open));
+		} finally {
+			for (FileRun run : open) {
+				run.in.close();
+			}
+		}
+	}
+
+	private long writeIndex(Path output, Run entries) throws IOException {
+		long[] buckets = new long[PositionIndex.BUCKETS + 1];
+		long count = 0;
+		try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			channel.position(PositionIndex.ENTRIES_OFFSET);
+			DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+			int bucket = 0;
+			while (entries.next()) {
+				int prefix = (int) (entries.hash >>> (Long.SIZE - PositionIndex.PREFIX_BITS));
+				while (bucket < prefix) {
+					buckets[++bucket] = count;
+				}
+				out.writeLong(entries.hash);
+				out.writeLong(entries.data);
+				count++;
+			}
+			while (bucket < PositionIndex.BUCKETS) {
+				buckets[++bucket] = count;
+			}
+			out.flush();
+
+			// Cabeçalho e buckets só são conhecidos depois das entradas
+			ByteBuffer header = ByteBuffer.allocate((int) PositionIndex.ENTRIES_OFFSET);
+			header.putInt(PositionIndex.MAGIC).putInt(PositionIndex.VERSION).putLong(count);
+			header.asLongBuffer().put(buckets);
+			header.clear();
+			while (header.hasRemaining()) {
+				channel.write(header, header.position());
+			}
+		}
+		return count;
+	}
+
+	/** Entries in index order. */
+	private abstract static class Run {
+
+		long hash;
+		long data;
+
+		abstract boolean next() throws IOException;
+	}
+
+	private final class MemoryRun extends Run {
+
+		private int next;
+
+		@Override
+		boolean next() {
+			if (next == size) {
+				return false;
+			}
+			hash = hashes[next];
+			data = PositionIndexBuilder.this.data[next];
+			next++;
+			return true;
+		}
+	}
+
+	private static final class FileRun extends Run {
+
+		final DataInputStream in;
+		final int order;
+		long remaining;
+
+		FileRun(Path path, int order) throws IOException {
+			in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE));
+			this.order = order;
+			remaining = Files.size(path) / PositionIndex.ENTRY_SIZE;
+		}
+
+		@Override
+		boolean next() throws IOException {
+			if (remaining == 0) {
+				return false;
+			}
+			hash = in.readLong();
+			data = in.readLong();
+			remaining--;
+			return true;
+		}
+	}
+
+	/** K-way merge; equal hashes come out in run order, which is game order. */
+	private static final class MergedRun extends Run {
+
+		private final PriorityQueue<FileRun> queue = new PriorityQueue<>((a, b) -> {
+			int byHash = Long.compareUnsigned(a.hash, b.hash);
+			return byHash != 0 ? byHash : Integer.compare(a.order, b.order);
+		});
+		private FileRun current;
+
+		MergedRun(List<FileRun> runs) throws IOException {
+			for (FileRun run : runs) {
+				if (run.next()) {
+					queue.add(run);
+				}
+			}
+		}
+
+		@Override
+		boolean next() throws IOException {
+			if (current != null && current.next()) {
+				queue.add(current);
+			}
+			current = queue.poll();
+			if (current == null) {
+				return false;
+			}
+			hash = current.hash;
+			data = current.data;
+			return true;
+		}
+	}
+}
@@ -0,0 +1,232 @@
+package chess.bitboard;
+
+import chess.Color;
+
+/**
+ * Precomputed attack tables shared by every match. Knight, king and pawn
+ * attacks are plain per-square lookups; rook and bishop attacks use magic
+ * bitboards, so a slider needs one multiply, one shift and one array read.
+ * The between and line tables describe how two squares are aligned, for pin
+ * and check detection. All tables are built once when the class is initialized,
+ * from magic numbers found beforehand by {@link MagicFinder}.
+ */
+public final class Attacks {
+
+	static final int[][] ROOK_DIRECTIONS = { { -1, 0 }, { 1, 0 }, { 0, -1 }, { 0, 1 } };
+	static final int[][] BISHOP_DIRECTIONS = { { -1, -1 }, { -1, 1 }, { 1, -1 }, { 1, 1 } };
+	private static final int[][] KNIGHT_OFFSETS = { { -2, -1 }, { -2, 1 }, { 2, -1 }, { 2, 1 }, { -1, -2 }, { -1, 2 },
+			{ 1, -2 }, { 1, 2 } };
+	private static final int[][] KING_OFFSETS = { { -1, 0 }, { 1, 0 }, { 0, -1 }, { 0, 1 }, { -1, -1 }, { -1, 1 },
+			{ 1, -1 }, { 1, 1 } };
+
+	private static final long[] KNIGHT = new long[Bitboards.SQUARES];
+	private static final long[] KING = new long[Bitboards.SQUARES];
+	private static final long[][] PAWN = new long[Color.values().length][Bitboards.SQUARES];
+
+	// Gerados por MagicFinder; procurá-los na carga da classe custava quase um segundo
+	private static final long[] ROOK_MAGIC_NUMBERS = {
+			0x1080004008801020L, 0x0840092002C03000L, 0x1900200010400900L, 0x0880100008000480L,
+			0x4200100420080200L, 0x8100020100080400L, 0x0200040110886200L, 0x0200008040220411L,
+			0x0404800084400220L, 0x0000401000402000L, 0x0086001081220440L, 0x0408800800100280L,
+			0x000A001201040820L, 0x8848800200840080L, 0x4001000100040200L, 0x0442000102105084L,
+			0x9080010020804100L, 0x0040404000201009L, 0x0000808010002009L, 0x2200090021D00100L,
+			0x0008008008040080L, 0x0004004002010040L, 0x0011040008015042L, 0x00000A0001768104L,
+			0x0000800080204009L, 0x2010004140002001L, 0x9800200280100080L, 0x1000100080080080L,
+			0x0050500500080100L, 0x0000020080040080L, 0x0C10010400420810L, 0x1040008200005104L,
+			0x01808240088004A0L, 0x0882804004802000L, 0x0880402001001100L, 0x2000210409001000L,
+			0x2000480131001500L, 0x0000800400800200L, 0x000002380C001003L, 0x4600084882000431L,
+			0x0080002000504000L, 0x0300500020004002L, 0x0040408200220011L, 0x0010040008004040L,
+			0x0000080004008080L, 0x0010040002008080L, 0x2012004881020004L, 0x8300842444820011L,
+			0x0088403882010200L, 0x0820400080210100L, 0x0110910040A00300L, 0x0801100280080480L,
+			0x0242009008200600L, 0x1002000489500200L, 0x0040800200010080L, 0x0091800041000080L,
+			0x0000209300488001L, 0x04C1002414824001L, 0x020020000B001041L, 0x7000100004200901L,
+			0x8002002004100802L, 0x30010002084C0007L, 0x0888221800813004L, 0x4000002840840112L };
+	private static final long[] BISHOP_MAGIC_NUMBERS = {
+			0x20C0090901061081L, 0x0024040094030104L, 0x8210810200290200L, 0x0011040484620000L,
+			0x0081104002221000L, 0x0009012011001350L, 0x0081010802400380L, 0x0000420210010408L,
+			0x0008105002280050L, 0x0001028484040044L, 0x2A00880810408804L, 0x7020022282000100L,
+			0x0084040420100A50L, 0x000401010840E000L, 0x2020020210420888L, 0x0008084202012010L,
+			0x2010400810018800L, 0x0445122008020840L, 0x0804100808002008L, 0x0008002104110100L,
+			0x0061005820080800L, 0x2001000200820100L, 0x480C210084010800L, 0x3004442500480420L,
+			0x1010102240048100L, 0x00182009084220A3L, 0x8803090A10004205L, 0x0208080040202020L,
+			0x000C044084010040L, 0x00A1010002004106L, 0x6008210020640202L, 0x1600902112860801L,
+			0x00042008C1220200L, 0x010C042002440140L, 0x5022080200040820L, 0x0402004042940100L,
+			0x0860108400008020L, 0x000C080022021000L, 0x0264080652822100L, 0x4005031221010401L,
+			0x0004502410008400L, 0x000500B010A20400L, 0x0415094050080800L, 0x080000201800A104L,
+			0x4022A80304000110L, 0x4012140802028020L, 0x40200104010100A0L, 0x12810806008B0C41L,
+			0x0020441008080000L, 0x2002120084045420L, 0x0704020062080002L, 0x0000001084040001L,
+			0x0322200891240200L, 0xF040200210024800L, 0x0140824832008042L, 0x000210020A004602L,
+			0x0083042805141020L, 0x002C12009A011000L, 0x0041A00044140400L, 0x00004004020A0202L,
+			0x0000140010020210L, 0x2864160811012200L, 0x2060080841082A17L, 0xA010041108003100L };
+
+	private static final Magic[] ROOK_MAGICS = new Magic[Bitboards.SQUARES];
+	private static final Magic[] BISHOP_MAGICS = new Magic[Bitboards.SQUARES];
+
+	private static final long[][] BETWEEN = new long[Bitboards.SQUARES][Bitboards.SQUARES];
+	private static final long[][] LINE = new long[Bitboards.SQUARES][Bitboards.SQUARES];
+
+	static {
+		for (int square = 0; square < Bitboards.SQUARES; square++) {
+			KNIGHT[square] = offsetAttacks(square, KNIGHT_OFFSETS);
+			KING[square] = offsetAttacks(square, KING_OFFSETS);
+			// Brancas andam para a linha 0, pretas para a linha 7
+			PAWN[Color.WHITE.ordinal()][square] = offsetAttacks(square, new int[][] { { -1, -1 }, { -1, 1 } });
+			PAWN[Color.BLACK.ordinal()][square] = offsetAttacks(square, new int[][] { { 1, -1 }, { 1, 1 } });
+			fillLines(square, ROOK_DIRECTIONS);
+			fillLines(square, BISHOP_DIRECTIONS);
+		}
+		for (int square = 0; square < Bitboards.SQUARES; square++) {
+			ROOK_MAGICS[square] = magic(square, ROOK_DIRECTIONS, ROOK_MAGIC_NUMBERS[square]);
+			BISHOP_MAGICS[square] = magic(square, BISHOP_DIRECTIONS, BISHOP_MAGIC_NUMBERS[square]);
+		}
+	}
+
+	private Attacks() {
+	}
+
+	public static long knight(int square) {
+		return KNIGHT[square];
+	}
+
+	public static long king(int square) {
+		return KING[square];
+	}
+
+	public static long pawn(Color color, int square) {
+		return PAWN[color.ordinal()][square];
+	}
+
+	public static long rook(int square, long occupied) {
+		return ROOK_MAGICS[square].attacks(occupied);
+	}
+
+	public static long bishop(int square, long occupied) {
+		return BISHOP_MAGICS[square].attacks(occupied);
+	}
+
+	public static long queen(int square, long occupied) {
+		return rook(square, occupied) | bishop(square, occupied);
+	}
+
+	/** Squares strictly between two squares on a shared rank, file or diagonal, otherwise empty. */
+	public static long between(int from, int to) {
+		return BETWEEN[from][to];
+	}
+
+	/** Whole rank, file or diagonal through both squares, otherwise empty. */
+	public static long line(int first, int second) {
+		return LINE[first][second];
+	}
+
+	/** Fills the attack table of a known magic number, failing if two occupancies with different attacks collide. */
+	private static Magic magic(int square, int[][] directions, long number) {
+		long mask = relevantOccupancy(square, directions);
+		int bits = Bitboards.count(mask);
+		long[] table = new long[1 << bits];
+		boolean[] filled = new boolean[table.length];
+		long subset = Bitboards.EMPTY;
+		do {
+			int index = (int) ((subset * number) >>> (64 - bits));
+			long attacks = slowSlidingAttacks(square, directions, subset);
+			if (filled[index] && table[index] != attacks) {
+				throw new IllegalStateException("Magic number " + Long.toHexString(number) + " fails on square " + square);
+			}
+			filled[index] = true;
+			table[index] = attacks;
+			// Percorre todos os subconjuntos da máscara (carry-rippler)
+			subset = (subset - mask) & mask;
+		} while (subset != Bitboards.EMPTY);
+		return new Magic(mask, number, 64 - bits, table);
+	}
+
+	private static void fillLines(int square, int[][] directions) {
+		for (int[] direction : directions) {
+			int[] opposite = { -direction[0], -direction[1] };
+			long line = Bitboards.bit(square) | rayAttacks(square, direction) | rayAttacks(square, opposite);
+			long between = Bitboards.EMPTY;
+			int row = Bitboards.row(square) + direction[0];
+			int column = Bitboards.column(square) + direction[1];
+			while (isOnBoard(row, column)) {
+				int target = Bitboards.square(row, column);
+				BETWEEN[square][target] = between;
+				LINE[square][target] = line;
+				between |= Bitboards.bit(target);
+				row += direction[0];
+				column += direction[1];
+			}
+		}
+	}
+
+	private static long rayAttacks(int square, int[] direction) {
+		return slowSlidingAttacks(square, new int[][] { direction }, Bitboards.EMPTY);
+	}
+
+	private static long offsetAttacks(int square, int[][] offsets) {
+		long attacks = Bitboards.EMPTY;
+		for (int[] offset : offsets) {
+			int row = Bitboards.row(square) + offset[0];
+			int column = Bitboards.column(square) + offset[1];
+			if (isOnBoard(row, column)) {
+				attacks |= Bitboards.bit(Bitboards.square(row, column));
+			}
+		}
+		return attacks;
+	}
+
+	private static boolean isOnBoard(int row, int column) {
+		return row >= 0 && row < Bitboards.SIZE && column >= 0 && column < Bitboards.SIZE;
+	}
+
+	/** Walks the rays one square at a time; only used to fill the magic tables. */
+	static long slowSlidingAttacks(int square, int[][] directions, long occupied) {
+		long attacks = Bitboards.EMPTY;
+		for (int[] direction : directions) {
+			int row = Bitboards.row(square) + direction[0];
+			int column = Bitboards.column(square) + direction[1];
+			while (isOnBoard(row, column)) {
+				long bit = Bitboards.bit(Bitboards.square(row, column));
+				attacks |= bit;
+				if ((occupied & bit) != 0) {
+					break;
+				}
+				row += direction[0];
+				column += direction[1];
+			}
+		}
+		return attacks;
+	}
+
+	/** Squares whose occupancy matters for a slider, which excludes the last square of each ray. */
+	static long relevantOccupancy(int square, int[][] directions) {
+		long mask = Bitboards.EMPTY;
+		for (int[] direction : directions) {
+			int row = Bitboards.row(square) + direction[0];
+			int column = Bitboards.column(square) + direction[1];
+			while (isOnBoard(row + direction[0], column + direction[1])) {
+				mask |= Bitboards.bit(Bitboards.square(row, column));
+				row += direction[0];
+				column += direction[1];
+			}
+		}
+		return mask;
+	}
+
+	private static final class Magic {
+
+		private final long mask;
+		private final long number;
+		private final int shift;
+		private final long[] attacks;
+
+		private Magic(long mask, long number, int shift, long[] attacks) {
+			this.mask = mask;
+			this.number = number;
+			this.shift = shift;
+			this.attacks = attacks;
+		}
+
+		private long attacks(long occupied) {
+			return attacks[(int) (((occupied & mask) * number) >>> shift)];
+		}
+	}
+}
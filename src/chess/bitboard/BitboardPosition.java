@@ -0,0 +1,138 @@
+package chess.bitboard;
+
+import chess.Color;
+import chess.PieceType;
+
+/**
+ * Piece placement stored as one mask per color and piece type, plus occupancy
+ * masks. Every update is a handful of bit operations and never allocates, and
+ * also keeps the position's Zobrist hash, king squares and piece-square
+ * evaluation totals up to date.
+ */
+public class BitboardPosition {
+
+	private static final int COLORS = Color.values().length;
+	private static final PieceType[] TYPE_VALUES = PieceType.values();
+	private static final int TYPES = TYPE_VALUES.length;
+
+	private final long[][] pieces = new long[COLORS][TYPES];
+	private final long[] occupancy = new long[COLORS];
+	private final int[] kingSquares = { Bitboards.NO_SQUARE, Bitboards.NO_SQUARE };
+	private long allPieces;
+	private long hash;
+	private int middlegameScore;
+	private int endgameScore;
+	private int phase;
+
+	public long getPieces(Color color, PieceType type) {
+		return pieces[color.ordinal()][type.ordinal()];
+	}
+
+	public long getOccupancy(Color color) {
+		return occupancy[color.ordinal()];
+	}
+
+	public long getAllPieces() {
+		return allPieces;
+	}
+
+	/** Square of {@code color}'s king, or {@link Bitboards#NO_SQUARE} if it has none. */
+	public int getKingSquare(Color color) {
+		return kingSquares[color.ordinal()];
+	}
+
+	public long getHash() {
+		return hash;
+	}
+
+	/** XORs a non-placement key (side to move, castling, en passant) into the hash. */
+	public void toggleHash(long key) {
+		hash ^= key;
+	}
+
+	public void setHash(long hash) {
+		this.hash = hash;
+	}
+
+	/** Sum of {@link PieceSquareTables#middlegame} over every piece, positive for white. */
+	public int getMiddlegameScore() {
+		return middlegameScore;
+	}
+
+	public int getEndgameScore() {
+		return endgameScore;
+	}
+
+	public int getPhase() {
+		return phase;
+	}
+
+	/** Type of the piece on {@code square}, or null if it is empty. */
+	public PieceType getPieceType(int square) {
+		long bit = Bitboards.bit(square);
+		if ((allPieces & bit) == 0) {
+			return null;
+		}
+		Color color = (occupancy[Color.WHITE.ordinal()] & bit) != 0 ? Color.WHITE : Color.BLACK;
+		long[] own = pieces[color.ordinal()];
+		for (PieceType type : TYPE_VALUES) {
+			if ((own[type.ordinal()] & bit) != 0) {
+				return type;
+			}
+		}
+		return null;
+	}
+
+	public boolean isOccupied(int square) {
+		return Bitboards.contains(allPieces, square);
+	}
+
+	/**
+	 * Pieces of {@code color} attacking {@code square}, found by looking outward
+	 * from the square: slider rays against {@code occupied}, then the knight,
+	 * king and pawn patterns.
+	 */
+	public long attackersOf(int square, Color color, long occupied) {
+		long[] own = pieces[color.ordinal()];
+		long queens = own[PieceType.QUEEN.ordinal()];
+		long attackers = Attacks.rook(square, occupied) & (own[PieceType.ROOK.ordinal()] | queens);
+		attackers |= Attacks.bishop(square, occupied) & (own[PieceType.BISHOP.ordinal()] | queens);
+		attackers |= Attacks.knight(square) & own[PieceType.KNIGHT.ordinal()];
+		attackers |= Attacks.king(square) & own[PieceType.KING.ordinal()];
+		// Um peão de 'color' ataca a casa se um peão adversário nela o atacaria de volta
+		Color opponent = (color == Color.WHITE) ? Color.BLACK : Color.WHITE;
+		return attackers | (Attacks.pawn(opponent, square) & own[PieceType.PAWN.ordinal()]);
+	}
+
+	public boolean isAttacked(int square, Color color) {
+		return attackersOf(square, color, allPieces) != 0;
+	}
+
+	public void put(Color color, PieceType type, int square) {
+		long bit = Bitboards.bit(square);
+		pieces[color.ordinal()][type.ordinal()] |= bit;
+		occupancy[color.ordinal()] |= bit;
+		allPieces |= bit;
+		hash ^= Zobrist.piece(color, type, square);
+		middlegameScore += PieceSquareTables.middlegame(color, type, square);
+		endgameScore += PieceSquareTables.endgame(color, type, square);
+		phase += PieceSquareTables.phase(type);
+		if (type == PieceType.KING) {
+			kingSquares[color.ordinal()] = square;
+		}
+	}
+
+	public void remove(Color color, PieceType type, int square) {
+		long mask = ~Bitboards.bit(square);
+		pieces[color.ordinal()][type.ordinal()] &= mask;
+		occupancy[color.ordinal()] &= mask;
+		allPieces &= mask;
+		hash ^= Zobrist.piece(color, type, square);
+		middlegameScore -= PieceSquareTables.middlegame(color, type, square);
+		endgameScore -= PieceSquareTables.endgame(color, type, square);
+		phase -= PieceSquareTables.phase(type);
+		if (type == PieceType.KING && kingSquares[color.ordinal()] == square) {
+			kingSquares[color.ordinal()] = Bitboards.NO_SQUARE;
+		}
+	}
+}
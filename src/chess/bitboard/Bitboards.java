@@ -0,0 +1,50 @@
+package chess.bitboard;
+
+/**
+ * Helpers for 64-bit square sets. Square indexes follow {@link boardgame.Position}:
+ * square = row * 8 + column, so a8 is 0 and h1 is 63.
+ */
+public final class Bitboards {
+
+	public static final int SIZE = 8;
+	public static final int SQUARES = 64;
+	public static final int NO_SQUARE = -1;
+
+	public static final long EMPTY = 0L;
+	public static final long ALL = ~0L;
+
+	private Bitboards() {
+	}
+
+	public static int square(int row, int column) {
+		return row * SIZE + column;
+	}
+
+	public static int row(int square) {
+		return square >>> 3;
+	}
+
+	public static int column(int square) {
+		return square & 7;
+	}
+
+	public static long bit(int square) {
+		return 1L << square;
+	}
+
+	public static boolean contains(long bitboard, int square) {
+		return (bitboard & (1L << square)) != 0;
+	}
+
+	public static int firstSquare(long bitboard) {
+		return Long.numberOfTrailingZeros(bitboard);
+	}
+
+	public static long withoutFirstSquare(long bitboard) {
+		return bitboard & (bitboard - 1);
+	}
+
+	public static int count(long bitboard) {
+		return Long.bitCount(bitboard);
+	}
+}
@@ -0,0 +1,99 @@
+package chess.bitboard;
+
+/**
+ * Offline generator of the magic numbers hardcoded in {@link Attacks}.
+ * Searching them takes about a second, too long to repeat on every start, so
+ * run this only when the square numbering or the relevant occupancy masks
+ * change and paste its output over the tables in {@code Attacks}.
+ *
+ * <pre>
+ * MagicFinder [seed]
+ * </pre>
+ */
+public final class MagicFinder {
+
+	private static final long DEFAULT_SEED = 0x9E3779B97F4A7C15L;
+
+	private long seed;
+
+	private MagicFinder(long seed) {
+		this.seed = seed;
+	}
+
+	public static void main(String[] args) {
+		MagicFinder finder = new MagicFinder(args.length > 0 ? Long.decode(args[0]) : DEFAULT_SEED);
+		long[] rook = new long[Bitboards.SQUARES];
+		long[] bishop = new long[Bitboards.SQUARES];
+		// Mesma ordem de busca de antes, para a mesma semente dar os mesmos números
+		for (int square = 0; square < Bitboards.SQUARES; square++) {
+			rook[square] = finder.find(square, Attacks.ROOK_DIRECTIONS);
+			bishop[square] = finder.find(square, Attacks.BISHOP_DIRECTIONS);
+		}
+		print("ROOK_MAGIC_NUMBERS", rook);
+		print("BISHOP_MAGIC_NUMBERS", bishop);
+	}
+
+	private static void print(String name, long[] numbers) {
+		StringBuilder out = new StringBuilder("\tprivate static final long[] ").append(name).append(" = {");
+		for (int i = 0; i < numbers.length; i++) {
+			out.append(i % 4 == 0 ? "\n\t\t\t" : " ").append(String.format("0x%016XL", numbers[i]));
+			if (i < numbers.length - 1) {
+				out.append(',');
+			}
+		}
+		System.out.println(out.append(" };"));
+	}
+
+	private long find(int square, int[][] directions) {
+		long mask = Attacks.relevantOccupancy(square, directions);
+		int bits = Bitboards.count(mask);
+		int size = 1 << bits;
+
+		long[] occupancies = new long[size];
+		long[] references = new long[size];
+		long subset = Bitboards.EMPTY;
+		for (int i = 0; i < size; i++) {
+			// Percorre todos os subconjuntos da máscara (carry-rippler)
+			occupancies[i] = subset;
+			references[i] = Attacks.slowSlidingAttacks(square, directions, subset);
+			subset = (subset - mask) & mask;
+		}
+
+		long[] table = new long[size];
+		int[] epoch = new int[size];
+		for (int attempt = 1;; attempt++) {
+			long number = sparseRandom();
+			if (Bitboards.count((mask * number) & 0xFF00000000000000L) < 6) {
+				continue;
+			}
+			if (fill(occupancies, references, mask, number, 64 - bits, table, epoch, attempt)) {
+				return number;
+			}
+		}
+	}
+
+	private static boolean fill(long[] occupancies, long[] references, long mask, long number, int shift,
+			long[] table, int[] epoch, int attempt) {
+		for (int i = 0; i < occupancies.length; i++) {
+			int index = (int) (((occupancies[i] & mask) * number) >>> shift);
+			if (epoch[index] != attempt) {
+				epoch[index] = attempt;
+				table[index] = references[i];
+			} else if (table[index] != references[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private long sparseRandom() {
+		return nextRandom() & nextRandom() & nextRandom();
+	}
+
+	private long nextRandom() {
+		seed ^= seed >>> 12;
+		seed ^= seed << 25;
+		seed ^= seed >>> 27;
+		return seed * 0x2545F4914F6CDD1DL;
+	}
+}
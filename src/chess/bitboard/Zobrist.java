@@ -0,0 +1,72 @@
+package chess.bitboard;
+
+import chess.CastlingRights;
+import chess.Color;
+import chess.PieceType;
+
+/**
+ * Random keys for 64-bit Zobrist hashing. A position's hash is the XOR of the
+ * keys of every piece on its square, the side to move, the castling rights
+ * and the file of a capturable en passant square, so each part can be added
+ * or removed with a single XOR.
+ */
+public final class Zobrist {
+
+	private static final long[][][] PIECE_SQUARE = new long[Color.values().length][PieceType.values().length][Bitboards.SQUARES];
+	private static final long[] CASTLING = new long[CastlingRights.ALL + 1];
+	private static final long[] EN_PASSANT_FILE = new long[Bitboards.SIZE];
+	private static final long BLACK_TO_MOVE;
+
+	static {
+		SplitMix random = new SplitMix(0x5DEECE66DL);
+		for (long[][] colorKeys : PIECE_SQUARE) {
+			for (long[] typeKeys : colorKeys) {
+				for (int square = 0; square < Bitboards.SQUARES; square++) {
+					typeKeys[square] = random.next();
+				}
+			}
+		}
+		for (int rights = 0; rights < CASTLING.length; rights++) {
+			CASTLING[rights] = random.next();
+		}
+		for (int file = 0; file < EN_PASSANT_FILE.length; file++) {
+			EN_PASSANT_FILE[file] = random.next();
+		}
+		BLACK_TO_MOVE = random.next();
+	}
+
+	private Zobrist() {
+	}
+
+	public static long piece(Color color, PieceType type, int square) {
+		return PIECE_SQUARE[color.ordinal()][type.ordinal()][square];
+	}
+
+	public static long castling(int rights) {
+		return CASTLING[rights];
+	}
+
+	public static long enPassant(int square) {
+		return EN_PASSANT_FILE[Bitboards.column(square)];
+	}
+
+	public static long sideToMove(Color color) {
+		return color == Color.BLACK ? BLACK_TO_MOVE : 0L;
+	}
+
+	private static final class SplitMix {
+
+		private long state;
+
+		private SplitMix(long seed) {
+			state = seed;
+		}
+
+		private long next() {
+			long z = (state += 0x9E3779B97F4A7C15L);
+			z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+			z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+			return z ^ (z >>> 31);
+		}
+	}
+}
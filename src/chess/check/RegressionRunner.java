@@ -0,0 +1,286 @@
+package chess.check;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import chess.ChessMatch;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Move;
+import chess.exceptions.ChessException;
+import chess.perft.Perft;
+import chess.perft.PerftPosition;
+
+/**
+ * Command line regression checks for the rules that are easy to break
+ * without noticing: move generation against the {@link PerftPosition}
+ * counts, FEN round trips, the draw rules at their boundaries and the
+ * cached game status.
+ *
+ * <pre>
+ * RegressionRunner [perft depth]
+ * </pre>
+ *
+ * Every check prints one line; the process exits with status 1 if any fails.
+ */
+public class RegressionRunner {
+
+	private static final int DEFAULT_PERFT_DEPTH = 3;
+	private static final int RANDOM_GAMES = 20;
+	private static final int RANDOM_GAME_PLIES = 200;
+
+	// Cavalos indo e voltando: a posição inicial se repete a cada quatro meias-jogadas
+	private static final String[] KNIGHT_SHUFFLE = { "g1f3", "g8f6", "f3g1", "f6g8" };
+
+	private interface Check {
+
+		/** Null when the check passes, otherwise what went wrong. */
+		String run();
+	}
+
+	private static boolean allPassed = true;
+
+	public static void main(String[] args) {
+		int perftDepth = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PERFT_DEPTH;
+
+		for (PerftPosition position : PerftPosition.values()) {
+			int depth = Math.min(perftDepth, position.getMaxDepth());
+			run("perft " + position.name() + " depth " + depth, () -> perft(position, depth));
+		}
+		run("fen round trip", RegressionRunner::fenRoundTrip);
+		run("fifty-move rule", RegressionRunner::fiftyMoveRule);
+		run("repetition across copies", RegressionRunner::repetitionAcrossCopies);
+		run("insufficient material", RegressionRunner::insufficientMaterial);
+		run("cached game status", RegressionRunner::cachedGameStatus);
+
+		if (!allPassed) {
+			System.exit(1);
+		}
+	}
+
+	private static void run(String name, Check check) {
+		String failure;
+		try {
+			failure = check.run();
+		} catch (RuntimeException e) {
+			failure = e.toString();
+		}
+		System.out.println(name + (failure == null ? " OK" : " FAILED: " + failure));
+		allPassed &= failure == null;
+	}
+
+	private static String perft(PerftPosition position, int depth) {
+		long expected = position.getExpectedNodes(depth);
+		// Com e sem contagem em lote, que percorrem caminhos diferentes no último ply
+		for (boolean bulkCounting : new boolean[] { true, false }) {
+			long nodes = new Perft(new ChessMatch(position.getFen()), depth, bulkCounting).count(depth);
+			if (nodes != expected) {
+				return nodes + " nodes" + (bulkCounting ? "" : " without bulk counting") + ", expected " + expected;
+			}
+		}
+		return null;
+	}
+
+	private static String fenRoundTrip() {
+		for (PerftPosition position : PerftPosition.values()) {
+			ChessMatch match = new ChessMatch(position.getFen());
+			if (!match.toFen().equals(position.getFen())) {
+				return position.name() + " written back as " + match.toFen();
+			}
+			int[] moves = new int[Move.MAX_MOVES];
+			match.makeMove(moves[match.generateLegalMoves(moves) - 1]);
+			if (!match.getStartingFen().equals(position.getFen())) {
+				return position.name() + " starting FEN became " + match.getStartingFen();
+			}
+		}
+		return null;
+	}
+
+	private static String fiftyMoveRule() {
+		ChessMatch match = new ChessMatch("8/8/8/4k3/8/8/8/R3K3 w - - 98 80");
+		play(match, "a1a2");
+		if (match.getDraw()) {
+			return "draw at halfmove clock 99";
+		}
+		play(match, "e5e6");
+		if (!match.getDraw()) {
+			return "no draw at halfmove clock 100";
+		}
+
+		match = new ChessMatch("8/8/8/4k3/8/8/P7/4K3 w - - 99 80");
+		play(match, "a2a3");
+		if (match.getHalfmoveClock() != 0 || match.getDraw()) {
+			return "a pawn move at clock 99 did not reset the clock";
+		}
+
+		// Mate no centésimo meio-lance vale mais que o empate
+		match = new ChessMatch("7k/8/6K1/8/8/8/8/R7 w - - 99 80");
+		play(match, "a1a8");
+		if (!match.getCheckMate() || match.getDraw()) {
+			return "mate on the 100th ply scored as " + (match.getDraw() ? "a draw" : "no mate");
+		}
+		return null;
+	}
+
+	private static String repetitionAcrossCopies() {
+		ChessMatch match = new ChessMatch();
+		play(match, KNIGHT_SHUFFLE);
+		if (!match.isRepetition() || match.isThreefoldRepetition() || match.getDraw()) {
+			return "wrong status after the first repetition";
+		}
+
+		// Cópia com a repetição inteira antes dela
+		ChessMatch copy = new ChessMatch(match);
+		if (!copy.isRepetition()) {
+			return "the copy forgot the earlier occurrences";
+		}
+		// A cópia de uma cópia só tem as posições anteriores herdadas
+		copy = new ChessMatch(copy);
+		if (!copy.isRepetition()) {
+			return "the copy of a copy forgot the earlier occurrences";
+		}
+		play(copy, KNIGHT_SHUFFLE);
+		if (!copy.isThreefoldRepetition() || !copy.getDraw()) {
+			return "no threefold repetition after a copy between the cycles";
+		}
+
+		// Cópia no meio do ciclo: as ocorrências ficam dos dois lados da fronteira
+		match = new ChessMatch();
+		play(match, KNIGHT_SHUFFLE[0], KNIGHT_SHUFFLE[1]);
+		ChessMatch target = new ChessMatch("4k3/8/8/8/8/8/8/4K2R w K - 0 1");
+		target.setPosition(match);
+		for (ChessMatch half : new ChessMatch[] { new ChessMatch(match), target }) {
+			play(half, KNIGHT_SHUFFLE[2], KNIGHT_SHUFFLE[3], KNIGHT_SHUFFLE[0], KNIGHT_SHUFFLE[1], KNIGHT_SHUFFLE[2]);
+			if (half.getDraw()) {
+				return "draw before the third occurrence";
+			}
+			play(half, KNIGHT_SHUFFLE[3]);
+			if (!half.getDraw()) {
+				return "no threefold repetition after a copy in the middle of a cycle";
+			}
+		}
+
+		// Partida de FEN: a posição inicial entra na contagem, o que vem antes dela não existe
+		match = new ChessMatch("4k3/8/8/8/8/8/8/R3K3 w - - 20 40");
+		play(match, "a1a2", "e8d8", "a2a1");
+		copy = new ChessMatch(match);
+		play(copy, "d8e8", "a1a2", "e8d8", "a2a1");
+		if (copy.getDraw()) {
+			return "draw before the third occurrence of a FEN position";
+		}
+		play(copy, "d8e8");
+		if (!copy.getDraw()) {
+			return "no threefold repetition of the FEN starting position";
+		}
+		return null;
+	}
+
+	private static String insufficientMaterial() {
+		String[] draws = { "4k3/8/8/8/8/8/8/4K3 w - - 0 1", "4k3/8/8/8/8/8/8/4KN2 w - - 0 1",
+				"4k3/8/8/8/8/8/2B1B3/4K3 w - - 0 1", "4k3/8/8/5b2/8/8/2B5/4K3 w - - 0 1" };
+		String[] notDraws = { "4k3/8/5b2/8/8/8/2B5/4K3 w - - 0 1", "4k3/8/8/8/8/8/2BB4/4K3 w - - 0 1",
+				"4k3/8/8/8/8/8/2BN4/4K3 w - - 0 1", "4k3/8/8/8/8/8/2NN4/4K3 w - - 0 1",
+				"4k3/8/8/8/8/8/P7/4K3 w - - 0 1" };
+		for (String fen : draws) {
+			ChessMatch match = new ChessMatch(fen);
+			if (!match.isInsufficientMaterial() || !match.getDraw()) {
+				return "no draw in " + fen;
+			}
+		}
+		for (String fen : notDraws) {
+			ChessMatch match = new ChessMatch(fen);
+			if (match.isInsufficientMaterial() || match.getDraw()) {
+				return "draw in " + fen;
+			}
+		}
+		return null;
+	}
+
+	private static String cachedGameStatus() {
+		ChessMatch match = new ChessMatch();
+		play(match, "f2f3", "e7e5", "g2g4", "d8h4");
+		if (!match.getCheck() || !match.getCheckMate()) {
+			return "fool's mate not seen";
+		}
+		match.undoChessMove();
+		if (match.getCheck() || match.getCheckMate() || match.getDraw()) {
+			return "undoChessMove kept the mate";
+		}
+
+		// Lances completos e lances de busca misturados; o cache é comparado a uma partida nova
+		Random random = new Random(1);
+		int[] moves = new int[Move.MAX_MOVES];
+		for (int game = 0; game < RANDOM_GAMES; game++) {
+			match = new ChessMatch();
+			for (int ply = 0; ply < RANDOM_GAME_PLIES && !match.getCheckMate() && !match.getDraw(); ply++) {
+				int move = moves[random.nextInt(match.generateLegalMoves(moves))];
+				match.performChessMove(position(Move.from(move)), position(Move.to(move)));
+				String failure = compareWithFreshMatch(match, true);
+				if (failure == null && !match.getCheckMate() && !match.getDraw()) {
+					// makeMove não atualiza o estado da partida, só os lances em cache
+					match.makeMove(moves[random.nextInt(match.generateLegalMoves(moves))]);
+					failure = compareWithFreshMatch(match, false);
+					match.undoMove();
+					if (failure == null) {
+						failure = compareWithFreshMatch(match, true);
+					}
+				}
+				if (failure != null) {
+					return failure + " in game " + game + " at " + match.toFen();
+				}
+			}
+		}
+		return null;
+	}
+
+	private static String compareWithFreshMatch(ChessMatch match, boolean status) {
+		ChessMatch fresh = new ChessMatch(match.toFen());
+		if (!legalMoves(match).equals(legalMoves(fresh))) {
+			return "stale legal moves";
+		}
+		if (status && (match.getCheck() != fresh.getCheck() || match.getCheckMate() != fresh.getCheckMate())) {
+			return "stale check or checkmate";
+		}
+		return null;
+	}
+
+	private static List<String> legalMoves(ChessMatch match) {
+		List<String> moves = new ArrayList<>();
+		for (ChessPiece[] row : match.getPieces()) {
+			for (ChessPiece piece : row) {
+				if (piece == null || piece.getColor() != match.getCurrentPlayer()) {
+					continue;
+				}
+				boolean[][] targets;
+				try {
+					targets = match.getLegalMoves(piece.getChessPosition());
+				} catch (ChessException e) {
+					// Peça sem lances
+					continue;
+				}
+				for (int i = 0; i < targets.length; i++) {
+					for (int j = 0; j < targets[i].length; j++) {
+						if (targets[i][j]) {
+							moves.add(piece.getChessPosition() + "-" + i + j);
+						}
+					}
+				}
+			}
+		}
+		return moves;
+	}
+
+	/** Plays moves such as "e2e4" through {@link ChessMatch#performChessMove}. */
+	private static void play(ChessMatch match, String... moves) {
+		for (String move : moves) {
+			match.performChessMove(new ChessPosition(move.charAt(0), move.charAt(1) - '0'),
+					new ChessPosition(move.charAt(2), move.charAt(3) - '0'));
+		}
+	}
+
+	private static ChessPosition position(int square) {
+		String name = Move.squareName(square);
+		return new ChessPosition(name.charAt(0), name.charAt(1) - '0');
+	}
+}
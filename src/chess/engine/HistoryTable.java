@@ -0,0 +1,41 @@
+package chess.engine;
+
+import chess.Move;
+import chess.bitboard.Bitboards;
+
+/**
+ * Butterfly history: how often a quiet move, by side, source and target
+ * square, caused a beta cutoff, weighted by the depth at which it did.
+ */
+final class HistoryTable {
+
+	// Ao passar do limite todas as entradas são reduzidas à metade
+	private static final int MAX_SCORE = 1 << 24;
+
+	private final int[][] scores = new int[2][Bitboards.SQUARES * Bitboards.SQUARES];
+
+	int get(int color, int move) {
+		return scores[color][index(move)];
+	}
+
+	void reward(int color, int move, int depth) {
+		int index = index(move);
+		scores[color][index] += depth * depth;
+		if (scores[color][index] > MAX_SCORE) {
+			age();
+		}
+	}
+
+	/** Halves every score, so older searches weigh less than the current one. */
+	void age() {
+		for (int[] colorScores : scores) {
+			for (int i = 0; i < colorScores.length; i++) {
+				colorScores[i] >>= 1;
+			}
+		}
+	}
+
+	private static int index(int move) {
+		return Move.from(move) * Bitboards.SQUARES + Move.to(move);
+	}
+}
@@ -0,0 +1,154 @@
+package chess.engine;
+
+import chess.ChessMatch;
+import chess.Move;
+import chess.PieceType;
+import chess.bitboard.BitboardPosition;
+import chess.eval.Evaluation;
+
+/**
+ * Hands out one node's moves best-first, in stages: the transposition-table
+ * move, captures by MVV-LVA, the two killer moves, then the remaining quiet
+ * moves by history score. Each stage is only generated when the previous
+ * ones didn't produce a cutoff, so a node that cuts on the hash move or a
+ * capture never generates its quiet moves. One picker is reused per ply.
+ */
+final class MovePicker {
+
+	private static final int TT_MOVE = 0;
+	private static final int GENERATE_CAPTURES = 1;
+	private static final int CAPTURES = 2;
+	private static final int FIRST_KILLER = 3;
+	private static final int SECOND_KILLER = 4;
+	private static final int GENERATE_QUIETS = 5;
+	private static final int QUIETS = 6;
+	private static final int DONE = 7;
+
+	private final ChessMatch match;
+	private final HistoryTable history;
+	private final int[] moves = new int[Move.MAX_MOVES];
+	private final int[] scores = new int[Move.MAX_MOVES];
+
+	private int stage;
+	private int index;
+	private int count;
+	private int ttMove;
+	private int firstKiller;
+	private int secondKiller;
+
+	MovePicker(ChessMatch match, HistoryTable history) {
+		this.match = match;
+		this.history = history;
+	}
+
+	void reset(int ttMove, int firstKiller, int secondKiller) {
+		this.ttMove = ttMove;
+		this.firstKiller = firstKiller;
+		this.secondKiller = secondKiller;
+		stage = TT_MOVE;
+	}
+
+	/** The next move to search, or {@link Move#NONE} when there are no more. */
+	int next() {
+		while (true) {
+			switch (stage) {
+			case TT_MOVE:
+				stage = GENERATE_CAPTURES;
+				if (ttMove != Move.NONE && match.isLegalMove(ttMove)) {
+					return ttMove;
+				}
+				break;
+			case GENERATE_CAPTURES:
+				count = match.generateLegalCaptures(moves);
+				scoreCaptures();
+				index = 0;
+				stage = CAPTURES;
+				break;
+			case CAPTURES:
+				if (index < count) {
+					int move = selectBest();
+					if (move != ttMove) {
+						return move;
+					}
+					break;
+				}
+				stage = FIRST_KILLER;
+				break;
+			case FIRST_KILLER:
+				stage = SECOND_KILLER;
+				if (isUsableKiller(firstKiller)) {
+					return firstKiller;
+				}
+				break;
+			case SECOND_KILLER:
+				stage = GENERATE_QUIETS;
+				if (secondKiller != firstKiller && isUsableKiller(secondKiller)) {
+					return secondKiller;
+				}
+				break;
+			case GENERATE_QUIETS:
+				count = match.generateLegalQuiets(moves);
+				scoreQuiets();
+				index = 0;
+				stage = QUIETS;
+				break;
+			case QUIETS:
+				if (index < count) {
+					int move = selectBest();
+					if (move != ttMove && move != firstKiller && move != secondKiller) {
+						return move;
+					}
+					break;
+				}
+				stage = DONE;
+				break;
+			default:
+				return Move.NONE;
+			}
+		}
+	}
+
+	private boolean isUsableKiller(int killer) {
+		// Killers são lances quietos de outra posição; aqui podem nem ser legais
+		return killer != Move.NONE && killer != ttMove && match.isLegalMove(killer);
+	}
+
+	/** Most valuable victim first, least valuable attacker breaking ties; promotions add the new piece. */
+	private void scoreCaptures() {
+		BitboardPosition bitboards = match.getBitboards();
+		for (int i = 0; i < count; i++) {
+			int move = moves[i];
+			PieceType victim = Move.isEnPassant(move) ? PieceType.PAWN : bitboards.getPieceType(Move.to(move));
+			int score = victim == null ? 0 : Evaluation.pieceValue(victim) * 8;
+			if (Move.isPromotion(move)) {
+				score += Evaluation.pieceValue(Move.promotionType(move));
+			}
+			scores[i] = score - bitboards.getPieceType(Move.from(move)).ordinal();
+		}
+	}
+
+	private void scoreQuiets() {
+		int color = match.getCurrentPlayer().ordinal();
+		for (int i = 0; i < count; i++) {
+			scores[i] = history.get(color, moves[i]);
+		}
+	}
+
+	/** Selection sort one step at a time, since most nodes only look at a few moves. */
+	private int selectBest() {
+		int best = index;
+		for (int i = index + 1; i < count; i++) {
+			if (scores[i] > scores[best]) {
+				best = i;
+			}
+		}
+		int move = moves[best];
+		int score = scores[best];
+		moves[best] = moves[index];
+		scores[best] = scores[index];
+		moves[index] = move;
+		scores[index] = score;
+		index++;
+		return move;
+	}
+}
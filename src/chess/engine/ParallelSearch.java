@@ -0,0 +1,155 @@
+package chess.engine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import chess.ChessMatch;
+
+/**
+ * Lazy SMP: every thread runs its own {@link Search} on its own copy of the
+ * match, and they only cooperate through a shared {@link TranspositionTable}.
+ * Helper threads start one ply deeper on odd indexes so the threads spread
+ * over different depths. The calling thread runs the main search; when it
+ * returns the helpers are stopped and the best move is voted across every
+ * thread's deepest completed iteration. The searchers and their matches are
+ * created once and reused by every search.
+ */
+public class ParallelSearch {
+
+	// Peso mínimo de um voto, para que o pior resultado ainda conte
+	private static final int VOTE_BASE = 20;
+
+	private final ExecutorService executor;
+	private final int threads;
+	private final TranspositionTable table;
+	private final List<Search> searches;
+	private final List<ChessMatch> matches;
+	private Consumer<SearchResult> listener;
+
+	/**
+	 * @param executor runs the {@code threads - 1} helper searches and needs
+	 *                 at least that many threads of its own
+	 */
+	public ParallelSearch(ExecutorService executor, int threads, TranspositionTable table) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("threads must be at least 1");
+		}
+		this.executor = executor;
+		this.threads = threads;
+		this.table = table;
+		searches = new ArrayList<>(threads);
+		matches = new ArrayList<>(threads);
+		for (int i = 0; i < threads; i++) {
+			ChessMatch match = new ChessMatch();
+			matches.add(match);
+			searches.add(new Search(match, table));
+		}
+	}
+
+	/** Receives the main thread's completed iterations; see {@link Search#setListener}. */
+	public void setListener(Consumer<SearchResult> listener) {
+		this.listener = listener;
+		searches.get(0).setListener(listener);
+	}
+
+	/**
+	 * Stops the running search. A stop that arrives before {@link #search}
+	 * starts is forgotten, as is one that arrives after it returns, so a late
+	 * stop cannot cut the next search short; callers that may stop a search
+	 * before it starts should repeat the stop until it returns.
+	 */
+	public void stop() {
+		for (Search search : searches) {
+			search.stop();
+		}
+	}
+
+	/**
+	 * Searches {@code match}, which is left untouched. Every thread gets the
+	 * same limits except the node limit, which is split between them so the
+	 * threads together search about as many nodes as asked.
+	 */
+	public SearchResult search(ChessMatch match, SearchLimits limits) {
+		table.newSearch();
+		for (int i = 0; i < threads; i++) {
+			matches.get(i).setPosition(match);
+			searches.get(i).clearStop();
+		}
+		if (threads > 1 && limits.getMaxNodes() != Long.MAX_VALUE) {
+			limits = new SearchLimits(limits.getMaxDepth(), Math.max(1, limits.getMaxNodes() / threads),
+					limits.getMaxTimeMillis(), limits.isInfinite());
+		}
+		SearchLimits threadLimits = limits;
+
+		List<Future<SearchResult>> helpers = new ArrayList<>(threads - 1);
+		for (int i = 1; i < threads; i++) {
+			Search helper = searches.get(i);
+			int startDepth = 1 + i % 2;
+			helpers.add(executor.submit(() -> helper.iterate(threadLimits, startDepth)));
+		}
+
+		List<SearchResult> results = new ArrayList<>(threads);
+		results.add(searches.get(0).iterate(threadLimits, 1));
+		stop();
+		for (Future<SearchResult> helper : helpers) {
+			SearchResult result = join(helper);
+			if (result != null) {
+				results.add(result);
+			}
+		}
+
+		long nodes = 0;
+		for (Search search : searches) {
+			nodes += search.getNodes();
+		}
+		SearchResult best = vote(results);
+		return new SearchResult(best.getPrincipalVariation(), best.getScore(), best.getDepth(), nodes,
+				results.get(0).getElapsedMillis());
+	}
+
+	/**
+	 * Each thread votes for its best move with a weight that grows with its
+	 * depth and with how much better its score is than the worst one. The
+	 * deepest result for the winning move is returned; the main thread wins ties.
+	 */
+	private SearchResult vote(List<SearchResult> results) {
+		int minScore = Integer.MAX_VALUE;
+		for (SearchResult result : results) {
+			minScore = Math.min(minScore, result.getScore());
+		}
+
+		Map<Integer, Long> votes = new HashMap<>();
+		for (SearchResult result : results) {
+			long weight = (long) (result.getScore() - minScore + VOTE_BASE) * result.getDepth();
+			votes.merge(result.getBestMove(), weight, Long::sum);
+		}
+
+		SearchResult best = results.get(0);
+		for (SearchResult result : results) {
+			long resultVotes = votes.get(result.getBestMove());
+			long bestVotes = votes.get(best.getBestMove());
+			if (resultVotes > bestVotes || (resultVotes == bestVotes && result.getBestMove() == best.getBestMove()
+					&& result.getDepth() > best.getDepth())) {
+				best = result;
+			}
+		}
+		return best;
+	}
+
+	private static SearchResult join(Future<SearchResult> helper) {
+		try {
+			return helper.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Helper search failed", e.getCause());
+		}
+	}
+}
@@ -0,0 +1,364 @@
+package chess.engine;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import chess.ChessMatch;
+import chess.Move;
+import chess.eval.Evaluation;
+
+/**
+ * Negamax alpha-beta search with iterative deepening and aspiration windows,
+ * played directly on a {@link ChessMatch} with makeMove/undoMove. Leaves are
+ * resolved by a captures-only quiescence search that skips captures losing
+ * material by static exchange evaluation. The match
+ * is back in its original position when {@link #search(SearchLimits)}
+ * returns. One instance searches one match and is not thread-safe, except for
+ * {@link #stop()}; the {@link TranspositionTable} may be shared.
+ */
+public class Search {
+
+	public static final int MAX_PLY = 128;
+	/** Score of being mated right now; mate in n plies scores MATE_SCORE - n. */
+	public static final int MATE_SCORE = 32000;
+
+	private static final int INFINITY = MATE_SCORE + 1;
+	private static final int ASPIRATION_WINDOW = 50;
+	private static final int ASPIRATION_MIN_DEPTH = 4;
+	private static final int DEFAULT_TABLE_SIZE_MB = 16;
+	// Consulta o relógio só a cada 256 nós
+	private static final int CHECK_INTERVAL_MASK = 255;
+
+	private final ChessMatch match;
+	private final TranspositionTable table;
+	private final StaticExchange exchange = new StaticExchange();
+	private final HistoryTable history = new HistoryTable();
+	private final MovePicker[] pickers = new MovePicker[MAX_PLY];
+	private final int[][] killers = new int[MAX_PLY][2];
+	private final int[][] moves = new int[MAX_PLY][Move.MAX_MOVES];
+	private final int[][] moveScores = new int[MAX_PLY][Move.MAX_MOVES];
+	private final int[][] pv = new int[MAX_PLY + 1][MAX_PLY + 1];
+	private final int[] pvLength = new int[MAX_PLY + 1];
+
+	private SearchLimits limits;
+	private long startNanos;
+	private long nodes;
+	private int iterationDepth;
+	private boolean aborted;
+	// Nota do melhor lance da raiz na iteração em curso, para uma profundidade 1 interrompida
+	private int rootScore;
+	private volatile boolean stopRequested;
+	private Consumer<SearchResult> listener;
+
+	public Search(ChessMatch match) {
+		this(match, new TranspositionTable(DEFAULT_TABLE_SIZE_MB));
+	}
+
+	public Search(ChessMatch match, TranspositionTable table) {
+		this.match = match;
+		this.table = table;
+		for (int ply = 0; ply < MAX_PLY; ply++) {
+			pickers[ply] = new MovePicker(match, history);
+		}
+	}
+
+	/** Called with the result of every completed iteration, on the searching thread. */
+	public void setListener(Consumer<SearchResult> listener) {
+		this.listener = listener;
+	}
+
+	/** Asks a running search, possibly from another thread, to return as soon as it can. */
+	public void stop() {
+		stopRequested = true;
+	}
+
+	/** Forgets a stop that arrived after the last search returned, before a searcher is reused. */
+	void clearStop() {
+		stopRequested = false;
+	}
+
+	public SearchResult search(SearchLimits limits) {
+		table.newSearch();
+		return iterate(limits, 1);
+	}
+
+	/**
+	 * Iterative deepening from {@code startDepth}. Only a search starting at
+	 * depth 1 is guaranteed a result, since depth 1 keeps going until its first
+	 * root move is searched and, if stopped after that, returns the best root
+	 * move so far. Others may return null if stopped before their first
+	 * iteration completes.
+	 */
+	SearchResult iterate(SearchLimits limits, int startDepth) {
+		this.limits = limits;
+		startNanos = System.nanoTime();
+		nodes = 0;
+		aborted = false;
+		history.age();
+		for (int[] plyKillers : killers) {
+			Arrays.fill(plyKillers, Move.NONE);
+		}
+
+		SearchResult result = null;
+		int score = 0;
+		for (iterationDepth = startDepth; iterationDepth <= limits.getMaxDepth(); iterationDepth++) {
+			score = aspirationSearch(iterationDepth, score);
+			if (aborted) {
+				if (iterationDepth == 1) {
+					result = new SearchResult(Arrays.copyOf(pv[0], pvLength[0]), rootScore, 1, nodes,
+							elapsedMillis());
+				}
+				break;
+			}
+			result = new SearchResult(Arrays.copyOf(pv[0], pvLength[0]), score, iterationDepth, nodes,
+					elapsedMillis());
+			if (listener != null) {
+				listener.accept(result);
+			}
+			// Um mate vindo da quiescência ou da tabela pode estar além da profundidade e ter um mais curto
+			if ((result.isMate() && MATE_SCORE - Math.abs(score) <= iterationDepth) || pvLength[0] == 0) {
+				break;
+			}
+		}
+		stopRequested = false;
+		return result;
+	}
+
+	public long getNodes() {
+		return nodes;
+	}
+
+	private int aspirationSearch(int depth, int previousScore) {
+		if (depth < ASPIRATION_MIN_DEPTH) {
+			return negamax(depth, -INFINITY, INFINITY, 0);
+		}
+		int window = ASPIRATION_WINDOW;
+		int alpha = Math.max(previousScore - window, -INFINITY);
+		int beta = Math.min(previousScore + window, INFINITY);
+		while (true) {
+			int score = negamax(depth, alpha, beta, 0);
+			if (aborted || (score > alpha && score < beta)) {
+				return score;
+			}
+			// Falhou fora da janela: alarga só o lado que falhou e repete
+			window *= 2;
+			if (score <= alpha) {
+				alpha = Math.max(score - window, -INFINITY);
+			} else {
+				beta = Math.min(score + window, INFINITY);
+			}
+		}
+	}
+
+	private int negamax(int depth, int alpha, int beta, int ply) {
+		if (depth == 0) {
+			return quiescence(alpha, beta, ply);
+		}
+		pvLength[ply] = 0;
+		nodes++;
+		if ((nodes & CHECK_INTERVAL_MASK) == 0 || nodes >= limits.getMaxNodes()) {
+			checkLimits();
+		}
+		if (aborted) {
+			return 0;
+		}
+		if (ply == MAX_PLY) {
+			return Evaluation.evaluate(match);
+		}
+		// Dentro da árvore basta uma repetição para o lado que está pior forçar o empate
+		if (ply > 0 && (match.isRepetition() || match.isInsufficientMaterial())) {
+			return 0;
+		}
+		// O mate no lance que completa os cinquenta ainda vale
+		if (ply > 0 && match.getHalfmoveClock() >= 100) {
+			boolean mated = match.isKingInCheck(match.getCurrentPlayer()) && match.generateLegalMoves(moves[ply]) == 0;
+			return mated ? -MATE_SCORE + ply : 0;
+		}
+
+		long hash = match.getHash();
+		long entry = table.probe(hash);
+		// Na raiz nunca corta, para sempre ter uma variação principal
+		if (entry != TranspositionTable.MISS && ply > 0 && TranspositionTable.depth(entry) >= depth) {
+			int score = scoreFromTable(TranspositionTable.score(entry), ply);
+			int bound = TranspositionTable.bound(entry);
+			if (bound == TranspositionTable.EXACT || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+					|| (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+				return score;
+			}
+		}
+
+		MovePicker picker = pickers[ply];
+		picker.reset(TranspositionTable.move(entry), killers[ply][0], killers[ply][1]);
+
+		int originalAlpha = alpha;
+		int bestScore = -INFINITY;
+		int bestMove = Move.NONE;
+		int searched = 0;
+		int move;
+		while ((move = picker.next()) != Move.NONE) {
+			searched++;
+			match.makeMove(move);
+			int score = -negamax(depth - 1, -beta, -alpha, ply + 1);
+			match.undoMove();
+			if (aborted) {
+				return 0;
+			}
+
+			if (score > bestScore) {
+				bestScore = score;
+				if (score > alpha) {
+					alpha = score;
+					bestMove = move;
+					updatePv(ply, move);
+					if (ply == 0) {
+						rootScore = score;
+					}
+					if (alpha >= beta) {
+						rewardQuietMove(move, depth, ply);
+						break;
+					}
+				}
+			}
+		}
+		if (searched == 0) {
+			return match.isKingInCheck(match.getCurrentPlayer()) ? -MATE_SCORE + ply : 0;
+		}
+
+		int bound = bestScore >= beta ? TranspositionTable.LOWER_BOUND
+				: bestScore > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND;
+		table.store(hash, bestMove, scoreToTable(bestScore, ply), depth, bound);
+		return bestScore;
+	}
+
+	/**
+	 * Searches captures only until the position is quiet. The side to move may
+	 * stand pat on the static evaluation unless it is in check, in which case
+	 * every evasion is searched.
+	 */
+	private int quiescence(int alpha, int beta, int ply) {
+		pvLength[ply] = 0;
+		nodes++;
+		if ((nodes & CHECK_INTERVAL_MASK) == 0 || nodes >= limits.getMaxNodes()) {
+			checkLimits();
+		}
+		if (aborted) {
+			return 0;
+		}
+		if (ply == MAX_PLY) {
+			return Evaluation.evaluate(match);
+		}
+
+		boolean inCheck = match.isKingInCheck(match.getCurrentPlayer());
+		int bestScore = -INFINITY;
+		if (!inCheck) {
+			bestScore = Evaluation.evaluate(match);
+			if (bestScore >= beta) {
+				return bestScore;
+			}
+			alpha = Math.max(alpha, bestScore);
+		}
+
+		int[] plyMoves = moves[ply];
+		int count = inCheck ? match.generateLegalMoves(plyMoves) : match.generateLegalCaptures(plyMoves);
+		if (inCheck && count == 0) {
+			return -MATE_SCORE + ply;
+		}
+		int[] scores = moveScores[ply];
+		for (int i = 0; i < count; i++) {
+			scores[i] = exchange.evaluate(match.getBitboards(), plyMoves[i]);
+		}
+		for (int i = 0; i < count; i++) {
+			// Melhores trocas primeiro; as que perdem material são descartadas fora do xeque
+			int move = selectBest(plyMoves, scores, i, count);
+			if (!inCheck && scores[i] < 0) {
+				break;
+			}
+			match.makeMove(move);
+			int score = -quiescence(-beta, -alpha, ply + 1);
+			match.undoMove();
+			if (aborted) {
+				return 0;
+			}
+
+			if (score > bestScore) {
+				bestScore = score;
+				if (score > alpha) {
+					alpha = score;
+					updatePv(ply, move);
+					if (alpha >= beta) {
+						break;
+					}
+				}
+			}
+		}
+		return bestScore;
+	}
+
+	/** Swaps the highest-scored move from index {@code first} on into {@code first} and returns it. */
+	private static int selectBest(int[] plyMoves, int[] scores, int first, int count) {
+		int best = first;
+		for (int i = first + 1; i < count; i++) {
+			if (scores[i] > scores[best]) {
+				best = i;
+			}
+		}
+		int move = plyMoves[best];
+		int score = scores[best];
+		plyMoves[best] = plyMoves[first];
+		scores[best] = scores[first];
+		plyMoves[first] = move;
+		scores[first] = score;
+		return move;
+	}
+
+	/** A quiet move that caused a cutoff becomes a killer for its ply and gains history. */
+	private void rewardQuietMove(int move, int depth, int ply) {
+		if (Move.isCapture(move) || Move.isPromotion(move)) {
+			return;
+		}
+		if (killers[ply][0] != move) {
+			killers[ply][1] = killers[ply][0];
+			killers[ply][0] = move;
+		}
+		history.reward(match.getCurrentPlayer().ordinal(), move, depth);
+	}
+
+	/** Mate scores are stored relative to the entry's position, not to the root. */
+	private static int scoreToTable(int score, int ply) {
+		if (score >= MATE_SCORE - MAX_PLY) {
+			return score + ply;
+		}
+		if (score <= -MATE_SCORE + MAX_PLY) {
+			return score - ply;
+		}
+		return score;
+	}
+
+	private static int scoreFromTable(int score, int ply) {
+		if (score >= MATE_SCORE - MAX_PLY) {
+			return score - ply;
+		}
+		if (score <= -MATE_SCORE + MAX_PLY) {
+			return score + ply;
+		}
+		return score;
+	}
+
+	private void updatePv(int ply, int move) {
+		pv[ply][0] = move;
+		System.arraycopy(pv[ply + 1], 0, pv[ply], 1, pvLength[ply + 1]);
+		pvLength[ply] = pvLength[ply + 1] + 1;
+	}
+
+	private void checkLimits() {
+		if (iterationDepth == 1 && pvLength[0] == 0) {
+			// Ainda sem nenhum lance da raiz: a profundidade 1 precisa terminar ao menos um
+			return;
+		}
+		aborted = stopRequested || nodes >= limits.getMaxNodes() || elapsedMillis() >= limits.getMaxTimeMillis();
+	}
+
+	private long elapsedMillis() {
+		return (System.nanoTime() - startNanos) / 1_000_000;
+	}
+}
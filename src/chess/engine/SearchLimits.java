@@ -0,0 +1,63 @@
+package chess.engine;
+
+/**
+ * When a search has to stop: after a depth, a number of nodes or an amount of
+ * wall-clock time, whichever comes first. Depth 1 is always completed so
+ * there is always a move to play. An infinite search may still end early, on
+ * a forced mate for instance, but its caller must not report the result until
+ * it is told to stop.
+ */
+public class SearchLimits {
+
+	private final int maxDepth;
+	private final long maxNodes;
+	private final long maxTimeMillis;
+	private final boolean infinite;
+
+	public SearchLimits(int maxDepth, long maxNodes, long maxTimeMillis) {
+		this(maxDepth, maxNodes, maxTimeMillis, false);
+	}
+
+	public SearchLimits(int maxDepth, long maxNodes, long maxTimeMillis, boolean infinite) {
+		if (maxDepth < 1) {
+			throw new IllegalArgumentException("Search depth must be at least 1");
+		}
+		this.maxDepth = Math.min(maxDepth, Search.MAX_PLY);
+		this.maxNodes = maxNodes;
+		this.maxTimeMillis = maxTimeMillis;
+		this.infinite = infinite;
+	}
+
+	public static SearchLimits infinite() {
+		return new SearchLimits(Search.MAX_PLY, Long.MAX_VALUE, Long.MAX_VALUE, true);
+	}
+
+	public static SearchLimits depth(int maxDepth) {
+		return new SearchLimits(maxDepth, Long.MAX_VALUE, Long.MAX_VALUE);
+	}
+
+	public static SearchLimits nodes(long maxNodes) {
+		return new SearchLimits(Search.MAX_PLY, maxNodes, Long.MAX_VALUE);
+	}
+
+	public static SearchLimits time(long maxTimeMillis) {
+		return new SearchLimits(Search.MAX_PLY, Long.MAX_VALUE, maxTimeMillis);
+	}
+
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	public long getMaxNodes() {
+		return maxNodes;
+	}
+
+	public long getMaxTimeMillis() {
+		return maxTimeMillis;
+	}
+
+	/** Whether the result must wait for an explicit stop, as with UCI "go infinite" and "go ponder". */
+	public boolean isInfinite() {
+		return infinite;
+	}
+}
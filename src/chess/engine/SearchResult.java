@@ -0,0 +1,64 @@
+package chess.engine;
+
+import java.util.Arrays;
+
+import chess.Move;
+
+/** Outcome of the deepest completed iteration of a {@link Search}. */
+public class SearchResult {
+
+	private final int[] principalVariation;
+	private final int score;
+	private final int depth;
+	private final long nodes;
+	private final long elapsedMillis;
+
+	public SearchResult(int[] principalVariation, int score, int depth, long nodes, long elapsedMillis) {
+		this.principalVariation = principalVariation;
+		this.score = score;
+		this.depth = depth;
+		this.nodes = nodes;
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	/** The move to play, or {@link Move#NONE} if the side to move has none. */
+	public int getBestMove() {
+		return principalVariation.length > 0 ? principalVariation[0] : Move.NONE;
+	}
+
+	public int[] getPrincipalVariation() {
+		return Arrays.copyOf(principalVariation, principalVariation.length);
+	}
+
+	/** Centipawns from the side to move's point of view; see {@link Search#MATE_SCORE}. */
+	public int getScore() {
+		return score;
+	}
+
+	public int getDepth() {
+		return depth;
+	}
+
+	public long getNodes() {
+		return nodes;
+	}
+
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	public boolean isMate() {
+		return Math.abs(score) >= Search.MATE_SCORE - Search.MAX_PLY;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("depth ").append(depth).append(" score ").append(score).append(" nodes ").append(nodes)
+				.append(" time ").append(elapsedMillis).append(" pv");
+		for (int move : principalVariation) {
+			sb.append(' ').append(Move.toString(move));
+		}
+		return sb.toString();
+	}
+}
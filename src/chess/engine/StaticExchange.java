@@ -0,0 +1,75 @@
+package chess.engine;
+
+import chess.Color;
+import chess.Move;
+import chess.PieceType;
+import chess.bitboard.BitboardPosition;
+import chess.bitboard.Bitboards;
+import chess.eval.Evaluation;
+
+/**
+ * Static exchange evaluation: the material balance of the whole capture
+ * sequence a move starts on its target square, with both sides always
+ * recapturing with their least valuable attacker and free to stop when
+ * continuing would lose. Sliders behind a capturing piece join in as it
+ * leaves. Reuses one buffer, so an instance belongs to a single thread.
+ */
+public final class StaticExchange {
+
+	private static final PieceType[] TYPES = PieceType.values();
+	// O rei vale mais que qualquer sequência de trocas
+	private static final int KING_VALUE = 20000;
+	private static final int MAX_EXCHANGES = 32;
+
+	private final int[] gain = new int[MAX_EXCHANGES + 1];
+
+	/** Expected material gain in centipawns of {@code move} for the side playing it. */
+	public int evaluate(BitboardPosition position, int move) {
+		int from = Move.from(move);
+		int to = Move.to(move);
+		Color side = Bitboards.contains(position.getOccupancy(Color.WHITE), from) ? Color.WHITE : Color.BLACK;
+		long occupied = position.getAllPieces();
+
+		PieceType attacker = position.getPieceType(from);
+		PieceType victim = position.getPieceType(to);
+		if (Move.isEnPassant(move)) {
+			victim = PieceType.PAWN;
+			occupied &= ~Bitboards.bit(to + (side == Color.WHITE ? Bitboards.SIZE : -Bitboards.SIZE));
+		}
+
+		int depth = 0;
+		gain[0] = victim == null ? 0 : value(victim);
+		long attackerBit = Bitboards.bit(from);
+		while (depth < MAX_EXCHANGES) {
+			depth++;
+			// Ganho especulativo se a peça que acabou de capturar for capturada
+			gain[depth] = value(attacker) - gain[depth - 1];
+			if (Math.max(-gain[depth - 1], gain[depth]) < 0) {
+				break;
+			}
+			occupied &= ~attackerBit;
+			side = side == Color.WHITE ? Color.BLACK : Color.WHITE;
+
+			long attackers = position.attackersOf(to, side, occupied) & occupied;
+			if (attackers == 0) {
+				break;
+			}
+			for (PieceType type : TYPES) {
+				long candidates = attackers & position.getPieces(side, type);
+				if (candidates != 0) {
+					attacker = type;
+					attackerBit = Bitboards.bit(Bitboards.firstSquare(candidates));
+					break;
+				}
+			}
+		}
+		while (--depth > 0) {
+			gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+		}
+		return gain[0];
+	}
+
+	private static int value(PieceType type) {
+		return type == PieceType.KING ? KING_VALUE : Evaluation.pieceValue(type);
+	}
+}
@@ -0,0 +1,117 @@
+package chess.engine;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size hash table of search results, shared by any number of search
+ * threads without locks. Each entry is two longs in one array: the data word
+ * and the position hash XORed with it. A reader only accepts an entry whose
+ * two words XOR back to its own hash, so an entry torn by a concurrent writer
+ * reads as a miss instead of as another position's data.
+ *
+ * <p>The data word packs the move (bits 0-15), score (16-31), depth (32-39),
+ * bound (40-41) and the search generation it was written in (42-49).
+ */
+public class TranspositionTable {
+
+	public static final int UPPER_BOUND = 1;
+	public static final int LOWER_BOUND = 2;
+	public static final int EXACT = 3;
+
+	/** Returned by {@link #probe(long)} when the position isn't stored. */
+	public static final long MISS = 0L;
+
+	private static final int ENTRY_BYTES = 2 * Long.BYTES;
+	private static final int AGE_MASK = 0xFF;
+
+	private final long[] table;
+	private final int indexMask;
+	private volatile int age;
+
+	/** Uses the largest power-of-two number of entries that fits in {@code sizeMb} megabytes. */
+	public TranspositionTable(int sizeMb) {
+		if (sizeMb < 1) {
+			throw new IllegalArgumentException("Transposition table needs at least 1 MB");
+		}
+		long entries = Long.highestOneBit((long) sizeMb * 1024 * 1024 / ENTRY_BYTES);
+		// Um long[] tem no máximo 2^31 - 1 posições e cada entrada ocupa duas
+		entries = Math.min(entries, 1L << 29);
+		table = new long[(int) (entries * 2)];
+		indexMask = (int) entries - 1;
+	}
+
+	public int getSizeMb() {
+		return (int) ((long) table.length * Long.BYTES / (1024 * 1024));
+	}
+
+	/** Starts a new search generation, so entries from older searches are replaced first. */
+	public void newSearch() {
+		age = (age + 1) & AGE_MASK;
+	}
+
+	public void clear() {
+		Arrays.fill(table, 0L);
+		age = 0;
+	}
+
+	/** The data word stored for {@code hash}, or {@link #MISS}. */
+	public long probe(long hash) {
+		int index = index(hash);
+		long data = table[index + 1];
+		return (table[index] ^ data) == hash ? data : MISS;
+	}
+
+	public void store(long hash, int move, int score, int depth, int bound) {
+		int index = index(hash);
+		long oldData = table[index + 1];
+		boolean samePosition = (table[index] ^ oldData) == hash;
+		// Mantém a entrada mais profunda da busca atual, a não ser que seja a mesma posição
+		if (!samePosition && oldData != MISS && age(oldData) == age && depth(oldData) > depth) {
+			return;
+		}
+		if (move == 0 && samePosition) {
+			move = move(oldData);
+		}
+		long data = (move & 0xFFFFL) | ((score & 0xFFFFL) << 16) | ((long) depth << 32) | ((long) bound << 40)
+				| ((long) age << 42);
+		table[index] = hash ^ data;
+		table[index + 1] = data;
+	}
+
+	/** Approximate fill rate of the current generation in permille, sampled from the first 1000 entries. */
+	public int hashfull() {
+		int samples = Math.min(1000, indexMask + 1);
+		int used = 0;
+		for (int i = 0; i < samples; i++) {
+			long data = table[2 * i + 1];
+			if (data != MISS && age(data) == age) {
+				used++;
+			}
+		}
+		return used * 1000 / samples;
+	}
+
+	public static int move(long data) {
+		return (int) (data & 0xFFFF);
+	}
+
+	public static int score(long data) {
+		return (short) (data >>> 16);
+	}
+
+	public static int depth(long data) {
+		return (int) ((data >>> 32) & 0xFF);
+	}
+
+	public static int bound(long data) {
+		return (int) ((data >>> 40) & 3);
+	}
+
+	private static int age(long data) {
+		return (int) ((data >>> 42) & AGE_MASK);
+	}
+
+	private int index(long hash) {
+		return ((int) hash & indexMask) * 2;
+	}
+}
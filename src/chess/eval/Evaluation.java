@@ -0,0 +1,34 @@
+package chess.eval;
+
+import chess.ChessMatch;
+import chess.Color;
+import chess.PieceType;
+import chess.bitboard.BitboardPosition;
+import chess.bitboard.PieceSquareTables;
+
+/**
+ * Static evaluation in centipawns from the side to move's point of view. The
+ * middlegame and endgame totals are kept incrementally by the board, so this
+ * only blends them by game phase and costs O(1).
+ */
+public final class Evaluation {
+
+	private static final int[] PIECE_VALUES = { 100, 320, 330, 500, 900, 0 };
+
+	private Evaluation() {
+	}
+
+	/** Plain material value, for exchange and capture ordering decisions. */
+	public static int pieceValue(PieceType type) {
+		return PIECE_VALUES[type.ordinal()];
+	}
+
+	public static int evaluate(ChessMatch match) {
+		BitboardPosition bitboards = match.getBitboards();
+		// Promoções podem passar da fase máxima
+		int phase = Math.min(bitboards.getPhase(), PieceSquareTables.MAX_PHASE);
+		int score = (bitboards.getMiddlegameScore() * phase
+				+ bitboards.getEndgameScore() * (PieceSquareTables.MAX_PHASE - phase)) / PieceSquareTables.MAX_PHASE;
+		return match.getCurrentPlayer() == Color.WHITE ? score : -score;
+	}
+}
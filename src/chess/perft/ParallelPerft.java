@@ -0,0 +1,127 @@
+package chess.perft;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import chess.ChessMatch;
+import chess.Move;
+
+/**
+ * Fork-join version of {@link Perft}. The tree is split at the root and, when
+ * {@code splitDepth} is greater than one, at the plies below it. Every task
+ * works on its own copy of the match, since a {@link ChessMatch} and its board
+ * are not thread-safe.
+ */
+public class ParallelPerft {
+
+	private final ForkJoinPool pool;
+	private final int splitDepth;
+	private final boolean bulkCounting;
+
+	public ParallelPerft(ForkJoinPool pool, int splitDepth, boolean bulkCounting) {
+		if (splitDepth < 1) {
+			throw new IllegalArgumentException("splitDepth must be at least 1");
+		}
+		this.pool = pool;
+		this.splitDepth = splitDepth;
+		this.bulkCounting = bulkCounting;
+	}
+
+	public long count(ChessMatch match, int depth) {
+		return pool.invoke(new PerftTask(new ChessMatch(match), depth, splitDepth));
+	}
+
+	/** Node count below each root move, keyed by the move in coordinate notation. */
+	public Map<String, Long> divide(ChessMatch match, int depth) {
+		Map<String, Long> result = new LinkedHashMap<>();
+		if (depth == 0) {
+			return result;
+		}
+		int[] moves = new int[Move.MAX_MOVES];
+		int count = match.generateLegalMoves(moves);
+		List<PerftTask> tasks = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			tasks.add(childTask(match, moves[i], depth - 1, splitDepth - 1));
+		}
+		pool.invoke(new BatchTask(tasks));
+		for (int i = 0; i < count; i++) {
+			result.put(Move.toString(moves[i]), tasks.get(i).join());
+		}
+		return result;
+	}
+
+	/** Counts several independent positions to the same depth, for batch analysis jobs. */
+	public long[] countEach(List<ChessMatch> matches, int depth) {
+		List<PerftTask> tasks = new ArrayList<>(matches.size());
+		for (ChessMatch match : matches) {
+			tasks.add(new PerftTask(new ChessMatch(match), depth, splitDepth));
+		}
+		pool.invoke(new BatchTask(tasks));
+		long[] nodes = new long[tasks.size()];
+		for (int i = 0; i < nodes.length; i++) {
+			nodes[i] = tasks.get(i).join();
+		}
+		return nodes;
+	}
+
+	private PerftTask childTask(ChessMatch parent, int move, int depth, int remainingSplits) {
+		ChessMatch child = new ChessMatch(parent);
+		child.makeMove(move);
+		return new PerftTask(child, depth, remainingSplits);
+	}
+
+	private final class PerftTask extends RecursiveTask<Long> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final ChessMatch match;
+		private final int depth;
+		private final int remainingSplits;
+
+		private PerftTask(ChessMatch match, int depth, int remainingSplits) {
+			this.match = match;
+			this.depth = depth;
+			this.remainingSplits = remainingSplits;
+		}
+
+		@Override
+		protected Long compute() {
+			if (remainingSplits == 0 || depth <= 1) {
+				return new Perft(match, depth, bulkCounting).count(depth);
+			}
+			int[] moves = new int[Move.MAX_MOVES];
+			int count = match.generateLegalMoves(moves);
+			List<PerftTask> children = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				children.add(childTask(match, moves[i], depth - 1, remainingSplits - 1));
+			}
+			invokeAll(children);
+			long nodes = 0;
+			for (PerftTask child : children) {
+				nodes += child.join();
+			}
+			return nodes;
+		}
+	}
+
+	private static final class BatchTask extends RecursiveTask<Void> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final List<PerftTask> tasks;
+
+		private BatchTask(List<PerftTask> tasks) {
+			this.tasks = tasks;
+		}
+
+		@Override
+		protected Void compute() {
+			invokeAll(tasks);
+			return null;
+		}
+	}
+}
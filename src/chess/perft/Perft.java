@@ -0,0 +1,65 @@
+package chess.perft;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import chess.ChessMatch;
+import chess.Move;
+
+/**
+ * Counts the leaf nodes of the legal move tree of a {@link ChessMatch} to a
+ * fixed depth. Move buffers are allocated once per instance, one per ply, so
+ * the count itself doesn't allocate.
+ */
+public class Perft {
+
+	private final ChessMatch match;
+	private final boolean bulkCounting;
+	private final int[][] moves;
+
+	/**
+	 * @param bulkCounting when true the last ply returns the number of legal
+	 *                     moves instead of making each one
+	 */
+	public Perft(ChessMatch match, int maxDepth, boolean bulkCounting) {
+		this.match = match;
+		this.bulkCounting = bulkCounting;
+		moves = new int[Math.max(maxDepth, 1)][Move.MAX_MOVES];
+	}
+
+	public long count(int depth) {
+		if (depth == 0) {
+			return 1;
+		}
+		int[] plyMoves = moves[depth - 1];
+		int count = match.generateLegalMoves(plyMoves);
+		if (depth == 1 && bulkCounting) {
+			return count;
+		}
+
+		long nodes = 0;
+		for (int i = 0; i < count; i++) {
+			match.makeMove(plyMoves[i]);
+			nodes += count(depth - 1);
+			match.undoMove();
+		}
+		return nodes;
+	}
+
+	/** Node count below each root move, keyed by the move in coordinate notation. */
+	public Map<String, Long> divide(int depth) {
+		Map<String, Long> result = new LinkedHashMap<>();
+		if (depth == 0) {
+			return result;
+		}
+		int[] rootMoves = moves[depth - 1];
+		int count = match.generateLegalMoves(rootMoves);
+		for (int i = 0; i < count; i++) {
+			int move = rootMoves[i];
+			match.makeMove(move);
+			result.put(Move.toString(move), count(depth - 1));
+			match.undoMove();
+		}
+		return result;
+	}
+}
@@ -0,0 +1,96 @@
+package chess.perft;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import chess.ChessMatch;
+
+/**
+ * Command line front-end for {@link Perft}.
+ *
+ * <pre>
+ * PerftRunner [depth] [--divide] [--no-bulk] [--threads=N] [--split=N] [fen]
+ * </pre>
+ *
+ * With {@code --threads} the count runs on a fork-join pool of N threads (0
+ * uses every core), splitting the first {@code --split} plies into tasks.
+ * Without a FEN every {@link PerftPosition} is counted and checked against its
+ * known node count; the process exits with status 1 if any count differs.
+ */
+public class PerftRunner {
+
+	private static final int DEFAULT_DEPTH = 4;
+
+	private static ParallelPerft parallelPerft;
+
+	public static void main(String[] args) {
+		int depth = DEFAULT_DEPTH;
+		boolean divide = false;
+		boolean bulkCounting = true;
+		int threads = -1;
+		int splitDepth = 1;
+		StringBuilder fen = new StringBuilder();
+
+		for (String arg : args) {
+			if (arg.equals("--divide")) {
+				divide = true;
+			} else if (arg.equals("--no-bulk")) {
+				bulkCounting = false;
+			} else if (arg.startsWith("--threads=")) {
+				threads = Integer.parseInt(arg.substring("--threads=".length()));
+			} else if (arg.startsWith("--split=")) {
+				splitDepth = Integer.parseInt(arg.substring("--split=".length()));
+			} else if (fen.length() == 0 && arg.matches("\\d+")) {
+				depth = Integer.parseInt(arg);
+			} else {
+				fen.append(fen.length() == 0 ? "" : " ").append(arg);
+			}
+		}
+
+		if (threads >= 0) {
+			ForkJoinPool pool = threads == 0 ? ForkJoinPool.commonPool() : new ForkJoinPool(threads);
+			parallelPerft = new ParallelPerft(pool, splitDepth, bulkCounting);
+		}
+
+		if (fen.length() > 0) {
+			run(fen.toString(), fen.toString(), depth, divide, bulkCounting, -1);
+			return;
+		}
+
+		boolean allPassed = true;
+		for (PerftPosition position : PerftPosition.values()) {
+			int positionDepth = Math.min(depth, position.getMaxDepth());
+			allPassed &= run(position.name(), position.getFen(), positionDepth, divide, bulkCounting,
+					position.getExpectedNodes(positionDepth));
+		}
+		if (!allPassed) {
+			System.exit(1);
+		}
+	}
+
+	private static boolean run(String name, String fen, int depth, boolean divide, boolean bulkCounting,
+			long expectedNodes) {
+		ChessMatch match = new ChessMatch(fen);
+		Perft perft = new Perft(match, depth, bulkCounting);
+
+		long start = System.nanoTime();
+		long nodes;
+		if (divide) {
+			nodes = 0;
+			Map<String, Long> counts = parallelPerft != null ? parallelPerft.divide(match, depth) : perft.divide(depth);
+			for (Map.Entry<String, Long> entry : counts.entrySet()) {
+				System.out.println(entry.getKey() + ": " + entry.getValue());
+				nodes += entry.getValue();
+			}
+		} else {
+			nodes = parallelPerft != null ? parallelPerft.count(match, depth) : perft.count(depth);
+		}
+		long elapsedNanos = Math.max(System.nanoTime() - start, 1);
+
+		boolean passed = expectedNodes < 0 || nodes == expectedNodes;
+		System.out.printf("%s depth %d: %d nodes in %d ms (%.0f nodes/s)%s%n", name, depth, nodes,
+				elapsedNanos / 1_000_000, nodes * 1e9 / elapsedNanos,
+				expectedNodes < 0 ? "" : passed ? " OK" : " FAILED, expected " + expectedNodes);
+		return passed;
+	}
+}
@@ -0,0 +1,10 @@
+package chess.pgn;
+
+import java.io.IOException;
+
+/** Destination of imported games, such as {@link PgnWriter#write}. */
+@FunctionalInterface
+public interface GameSink {
+
+	void accept(PgnGame game) throws IOException;
+}
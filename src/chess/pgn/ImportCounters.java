@@ -0,0 +1,110 @@
+package chess.pgn;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-stage counters of a {@link PgnImport}, updated while it runs. Each stage
+ * records the time it spent working and the time it spent blocked on its
+ * neighbours: a splitter that waits for queue space or a writer that waits for
+ * the next chunk both mean the workers are the bottleneck, while idle workers
+ * with a busy writer mean the output is.
+ */
+public class ImportCounters {
+
+	private static final double NANOS_PER_SECOND = 1e9;
+
+	final AtomicLong bytesSplit = new AtomicLong();
+	final AtomicLong chunks = new AtomicLong();
+	final AtomicLong splitNanos = new AtomicLong();
+	final AtomicLong splitBlockedNanos = new AtomicLong();
+
+	final AtomicLong gamesParsed = new AtomicLong();
+	final AtomicLong gamesRejected = new AtomicLong();
+	final AtomicLong movesParsed = new AtomicLong();
+	final AtomicLong parseNanos = new AtomicLong();
+
+	final AtomicLong gamesWritten = new AtomicLong();
+	final AtomicLong writeNanos = new AtomicLong();
+	final AtomicLong writeBlockedNanos = new AtomicLong();
+
+	private final long startNanos = System.nanoTime();
+	private volatile long endNanos;
+
+	public long getBytesSplit() {
+		return bytesSplit.get();
+	}
+
+	public long getChunks() {
+		return chunks.get();
+	}
+
+	public long getGamesParsed() {
+		return gamesParsed.get();
+	}
+
+	public long getGamesRejected() {
+		return gamesRejected.get();
+	}
+
+	public long getMovesParsed() {
+		return movesParsed.get();
+	}
+
+	public long getGamesWritten() {
+		return gamesWritten.get();
+	}
+
+	/** Time spent mapping the file and looking for game boundaries. */
+	public long getSplitNanos() {
+		return splitNanos.get();
+	}
+
+	/** Time the splitter waited for room in the queue of chunks in flight. */
+	public long getSplitBlockedNanos() {
+		return splitBlockedNanos.get();
+	}
+
+	/** Parsing time summed over every worker. */
+	public long getParseNanos() {
+		return parseNanos.get();
+	}
+
+	/** Time spent inside the {@link GameSink}. */
+	public long getWriteNanos() {
+		return writeNanos.get();
+	}
+
+	/** Time the writer waited for the next chunk to be parsed. */
+	public long getWriteBlockedNanos() {
+		return writeBlockedNanos.get();
+	}
+
+	/** Wall time from the start of the import until now, or until its end. */
+	public long getElapsedNanos() {
+		long end = endNanos;
+		return (end == 0 ? System.nanoTime() : end) - startNanos;
+	}
+
+	void finish() {
+		endNanos = System.nanoTime();
+	}
+
+	@Override
+	public String toString() {
+		double elapsed = getElapsedNanos() / NANOS_PER_SECOND;
+		return String.format(
+				"%d games (%d rejected) in %.2f s, %.0f games/s%n"
+						+ "split: %d MB in %d chunks, %.0f MB/s busy, blocked %.2f s%n"
+						+ "parse: %.0f games/s per worker, %.0f moves/s per worker%n"
+						+ "write: %.0f games/s busy, blocked %.2f s",
+				getGamesWritten(), getGamesRejected(), elapsed, getGamesWritten() / elapsed,
+				getBytesSplit() >> 20, getChunks(), rate(getBytesSplit() / (double) (1 << 20), getSplitNanos()),
+				getSplitBlockedNanos() / NANOS_PER_SECOND,
+				rate(getGamesParsed() + getGamesRejected(), getParseNanos()), rate(getMovesParsed(), getParseNanos()),
+				rate(getGamesWritten(), getWriteNanos()), getWriteBlockedNanos() / NANOS_PER_SECOND);
+	}
+
+	private static double rate(double amount, long nanos) {
+		return nanos == 0 ? 0 : amount * NANOS_PER_SECOND / nanos;
+	}
+}
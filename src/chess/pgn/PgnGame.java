@@ -0,0 +1,92 @@
+package chess.pgn;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import chess.ChessMatch;
+import chess.Color;
+
+/**
+ * One game of a PGN file: its tag pairs, its moves packed as in
+ * {@link chess.Move} and its result ("1-0", "0-1", "1/2-1/2" or "*"). Moves
+ * are relative to the start position, or to the "FEN" tag when present.
+ */
+public class PgnGame {
+
+	public static final String UNKNOWN_RESULT = "*";
+
+	private static final String STANDARD_START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+	private final Map<String, String> tags;
+	private final int[] moves;
+	private final String result;
+
+	public PgnGame(Map<String, String> tags, int[] moves, String result) {
+		this.tags = Collections.unmodifiableMap(new LinkedHashMap<>(tags));
+		this.moves = Arrays.copyOf(moves, moves.length);
+		this.result = result;
+	}
+
+	/**
+	 * The game played so far in {@code match}, e.g. through
+	 * {@link ChessMatch#performChessMove}, with the given tags plus "FEN" and
+	 * "SetUp" when it did not start from the standard position. The result
+	 * comes from the match's checkmate and draw status.
+	 */
+	public static PgnGame fromMatch(ChessMatch match, Map<String, String> tags) {
+		Map<String, String> allTags = new LinkedHashMap<>(tags);
+		String fen = match.getStartingFen();
+		if (!fen.equals(STANDARD_START)) {
+			allTags.put("SetUp", "1");
+			allTags.put("FEN", fen);
+		}
+		String result = UNKNOWN_RESULT;
+		if (match.getCheckMate()) {
+			result = match.getCurrentPlayer() == Color.WHITE ? "0-1" : "1-0";
+		} else if (match.getDraw()) {
+			result = "1/2-1/2";
+		}
+		return new PgnGame(allTags, match.getMoveHistory(), result);
+	}
+
+	public Map<String, String> getTags() {
+		return tags;
+	}
+
+	public String getTag(String name) {
+		return tags.get(name);
+	}
+
+	public int[] getMoves() {
+		return Arrays.copyOf(moves, moves.length);
+	}
+
+	public int getMoveCount() {
+		return moves.length;
+	}
+
+	public int getMove(int index) {
+		return moves[index];
+	}
+
+	public String getResult() {
+		return result;
+	}
+
+	/** A new match at the game's starting position, before any of its moves. */
+	public ChessMatch startingPosition() {
+		String fen = tags.get("FEN");
+		return fen == null ? new ChessMatch() : new ChessMatch(fen);
+	}
+
+	/** A new match with every move of the game played. */
+	public ChessMatch finalPosition() {
+		ChessMatch match = startingPosition();
+		for (int move : moves) {
+			match.makeMove(move);
+		}
+		return match;
+	}
+}
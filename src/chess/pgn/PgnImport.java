@@ -0,0 +1,280 @@
+package chess.pgn;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import chess.exceptions.ChessException;
+
+/**
+ * Imports a PGN file in three stages. A splitter thread memory-maps the file
+ * and cuts it into chunks of whole games; the workers of an executor parse and
+ * replay one chunk each with their own {@link PgnReader}; the calling thread
+ * hands the games to a {@link GameSink} in file order. At most
+ * {@code 2 * workers} chunks are in flight, so a slow sink throttles the
+ * splitter instead of filling the heap. Games with illegal moves are counted
+ * and dropped.
+ */
+public class PgnImport {
+
+	private static final int CHUNK_SIZE = 1 << 20;
+	// Janela mapeada de cada vez, para arquivos maiores que um ByteBuffer
+	private static final int WINDOW_SIZE = 1 << 28;
+
+	private static final Batch END = new Batch(List.of());
+
+	private final ExecutorService executor;
+	private final int workers;
+	private volatile ImportCounters counters;
+
+	/**
+	 * @param executor parses the chunks and should have {@code workers}
+	 *                 threads of its own
+	 */
+	public PgnImport(ExecutorService executor, int workers) {
+		if (workers < 1) {
+			throw new IllegalArgumentException("workers must be at least 1");
+		}
+		this.executor = executor;
+		this.workers = workers;
+	}
+
+	/** Counters of the running import, or of the last one; null before the first. */
+	public ImportCounters getCounters() {
+		return counters;
+	}
+
+	/** Imports every game of {@code pgn} into {@code sink}, returning once all of them were written. */
+	public ImportCounters run(Path pgn, GameSink sink) throws IOException {
+		ImportCounters current = new ImportCounters();
+		counters = current;
+		BlockingQueue<Future<Batch>> queue = new ArrayBlockingQueue<>(2 * workers);
+
+		try (FileChannel channel = FileChannel.open(pgn, StandardOpenOption.READ)) {
+			Thread splitter = new Thread(() -> split(channel, queue, current), "pgn-splitter");
+			splitter.setDaemon(true);
+			splitter.start();
+			try {
+				write(queue, sink, current);
+			} finally {
+				// Sink falhou: libera o splitter e descarta o que estiver em andamento
+				splitter.interrupt();
+				for (Future<Batch> pending : queue) {
+					pending.cancel(true);
+				}
+				joinUninterruptibly(splitter);
+			}
+		}
+		current.finish();
+		return current;
+	}
+
+	private void write(BlockingQueue<Future<Batch>> queue, GameSink sink, ImportCounters counters)
+			throws IOException {
+		while (true) {
+			long waitStart = System.nanoTime();
+			Batch batch;
+			try {
+				batch = queue.take().get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("PGN import interrupted");
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof IOException) {
+					throw (IOException) e.getCause();
+				}
+				throw new ChessException("PGN import failed: " + e.getCause());
+			}
+			long writeStart = System.nanoTime();
+			counters.writeBlockedNanos.addAndGet(writeStart - waitStart);
+			if (batch == END) {
+				return;
+			}
+			for (PgnGame game : batch.games) {
+				sink.accept(game);
+			}
+			counters.gamesWritten.addAndGet(batch.games.size());
+			counters.writeNanos.addAndGet(System.nanoTime() - writeStart);
+		}
+	}
+
+	private void split(FileChannel channel, BlockingQueue<Future<Batch>> queue, ImportCounters counters) {
+		try {
+			long size = channel.size();
+			long start = 0;
+			long window = WINDOW_SIZE;
+			while (start < size) {
+				long splitStart = System.nanoTime();
+				long end = Math.min(size, start + window);
+				MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+				int length = mapped.limit();
+				int chunkStart = 0;
+				int boundary;
+				while (chunkStart + CHUNK_SIZE < length
+						&& (boundary = nextGameStart(mapped, chunkStart + CHUNK_SIZE)) >= 0) {
+					submit(queue, slice(mapped, chunkStart, boundary), counters, splitStart);
+					chunkStart = boundary;
+					splitStart = System.nanoTime();
+				}
+				if (end == size) {
+					submit(queue, slice(mapped, chunkStart, length), counters, splitStart);
+					break;
+				}
+				if (chunkStart == 0 && (chunkStart = nextGameStart(mapped, 1)) >= 0) {
+					submit(queue, slice(mapped, 0, chunkStart), counters, splitStart);
+				}
+				if (chunkStart > 0) {
+					start += chunkStart;
+				} else if (window < Integer.MAX_VALUE) {
+					// Um único jogo maior que a janela: tenta de novo com uma janela maior
+					window = Math.min(2 * window, Integer.MAX_VALUE);
+					counters.splitNanos.addAndGet(System.nanoTime() - splitStart);
+				} else {
+					submit(queue, mapped, counters, splitStart);
+					start = end;
+				}
+			}
+			queue.put(CompletableFuture.completedFuture(END));
+		} catch (InterruptedException e) {
+			// O escritor desistiu; ninguém mais lê a fila
+		} catch (IOException | RuntimeException e) {
+			queue.clear();
+			queue.offer(CompletableFuture.failedFuture(e));
+		}
+	}
+
+	private void submit(BlockingQueue<Future<Batch>> queue, ByteBuffer chunk, ImportCounters counters,
+			long splitStart) throws InterruptedException {
+		counters.bytesSplit.addAndGet(chunk.remaining());
+		counters.chunks.incrementAndGet();
+		long submitted = System.nanoTime();
+		counters.splitNanos.addAndGet(submitted - splitStart);
+		queue.put(executor.submit(() -> parse(chunk, counters)));
+		counters.splitBlockedNanos.addAndGet(System.nanoTime() - submitted);
+	}
+
+	private static Batch parse(ByteBuffer chunk, ImportCounters counters) throws IOException {
+		long start = System.nanoTime();
+		List<PgnGame> games = new ArrayList<>();
+		long rejected = 0;
+		long moves = 0;
+		try (PgnReader reader = new PgnReader(new ByteBufferChannel(chunk))) {
+			while (true) {
+				try {
+					PgnGame game = reader.next();
+					if (game == null) {
+						break;
+					}
+					games.add(game);
+					moves += game.getMoveCount();
+				} catch (ChessException e) {
+					rejected++;
+				}
+			}
+		}
+		counters.gamesParsed.addAndGet(games.size());
+		counters.gamesRejected.addAndGet(rejected);
+		counters.movesParsed.addAndGet(moves);
+		counters.parseNanos.addAndGet(System.nanoTime() - start);
+		return new Batch(games);
+	}
+
+	/**
+	 * Offset of the first tag line at or after {@code from} that starts a game,
+	 * that is, one not preceded by another tag line, or -1 when there is none.
+	 */
+	private static int nextGameStart(ByteBuffer buffer, int from) {
+		int length = buffer.limit();
+		for (int i = Math.max(from, 1); i < length; i++) {
+			if (buffer.get(i) != '[' || buffer.get(i - 1) != '\n') {
+				continue;
+			}
+			int previous = i - 1;
+			while (previous >= 0 && isWhitespace(buffer.get(previous))) {
+				previous--;
+			}
+			if (previous < 0 || buffer.get(previous) != ']') {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static boolean isWhitespace(byte b) {
+		return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+	}
+
+	private static ByteBuffer slice(ByteBuffer buffer, int from, int to) {
+		return buffer.slice(from, to - from);
+	}
+
+	private static void joinUninterruptibly(Thread thread) {
+		boolean interrupted = false;
+		while (true) {
+			try {
+				thread.join();
+				break;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static final class Batch {
+
+		final List<PgnGame> games;
+
+		Batch(List<PgnGame> games) {
+			this.games = games;
+		}
+	}
+
+	/** Lets a {@link PgnReader} read a chunk straight from the mapped file. */
+	private static final class ByteBufferChannel implements ReadableByteChannel {
+
+		private final ByteBuffer source;
+		private boolean open = true;
+
+		ByteBufferChannel(ByteBuffer source) {
+			this.source = source;
+		}
+
+		@Override
+		public int read(ByteBuffer target) {
+			if (!source.hasRemaining()) {
+				return -1;
+			}
+			int count = Math.min(source.remaining(), target.remaining());
+			target.put(target.position(), source, source.position(), count);
+			source.position(source.position() + count);
+			target.position(target.position() + count);
+			return count;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return open;
+		}
+
+		@Override
+		public void close() {
+			open = false;
+		}
+	}
+}
@@ -0,0 +1,290 @@
+package chess.pgn;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import chess.ChessMatch;
+import chess.Move;
+import chess.exceptions.ChessException;
+
+/**
+ * Streams games out of a PGN file of any size, one {@link #next()} call per
+ * game, through a fixed-size buffer over a byte channel. Every SAN move is
+ * resolved against the legal moves of the game's position, so only games
+ * that can actually be played are returned. Comments, variations, NAGs and
+ * escape lines are skipped. Tag values are read as UTF-8; movetext must be
+ * ASCII, which PGN requires anyway.
+ */
+public class PgnReader implements Closeable {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final int EOF = -1;
+
+	private final ReadableByteChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+	private final byte[] bytes = buffer.array();
+	private int position;
+	private int limit;
+	private int pushedBack = EOF;
+	// Se o último caractere lido foi o primeiro da sua linha
+	private boolean lineStart = true;
+	private boolean afterNewline = true;
+
+	private final StringBuilder token = new StringBuilder(16);
+	private byte[] tagValue = new byte[64];
+	private final int[] legalMoves = new int[Move.MAX_MOVES];
+	private int[] gameMoves = new int[256];
+	private final ChessMatch initialPosition = new ChessMatch();
+	private long gamesRead;
+
+	public PgnReader(ReadableByteChannel channel) {
+		this.channel = channel;
+	}
+
+	public PgnReader(Path path) throws IOException {
+		this(FileChannel.open(path, StandardOpenOption.READ));
+	}
+
+	/** Number of games read so far, including the ones rejected with an exception. */
+	public long getGamesRead() {
+		return gamesRead;
+	}
+
+	/**
+	 * Reads the next game, or returns null at the end of the input. A game with
+	 * an illegal or malformed move is read to its end and then reported with a
+	 * {@link ChessException}, so the next call continues with the following game.
+	 */
+	public PgnGame next() throws IOException {
+		Map<String, String> tags = new LinkedHashMap<>();
+		int c = skipWhitespace();
+		// Linhas de escape e comentários soltos entre jogos
+		while ((c == '%' && lineStart) || c == ';' || c == '{') {
+			skipPast(c == '{' ? '}' : '\n');
+			c = skipWhitespace();
+		}
+		if (c == EOF) {
+			return null;
+		}
+		while (c == '[') {
+			readTag(tags);
+			c = skipWhitespace();
+		}
+		gamesRead++;
+
+		ChessMatch match = null;
+		String error = null;
+		try {
+			match = startingPosition(tags);
+		} catch (ChessException e) {
+			error = e.getMessage();
+		}
+		int moveCount = 0;
+		String result = PgnGame.UNKNOWN_RESULT;
+		while (c != EOF) {
+			if (c == '[' && lineStart) {
+				// Jogo sem resultado: a próxima tag já é do jogo seguinte
+				pushedBack = c;
+				break;
+			}
+			if (c == '{') {
+				skipPast('}');
+			} else if (c == ';') {
+				skipPast('\n');
+			} else if (c == '(') {
+				skipVariation();
+			} else if (c == '$') {
+				readToken(c);
+			} else if (c == '%' && lineStart) {
+				skipPast('\n');
+			} else {
+				readToken(c);
+				if (isResult(token)) {
+					result = token.toString();
+					break;
+				}
+				int san = skipMoveNumber(token);
+				if (san < token.length() && error == null) {
+					try {
+						int move = San.parse(match, token.subSequence(san, token.length()), legalMoves);
+						match.makeMove(move);
+						if (moveCount == gameMoves.length) {
+							gameMoves = Arrays.copyOf(gameMoves, moveCount * 2);
+						}
+						gameMoves[moveCount++] = move;
+					} catch (ChessException e) {
+						error = e.getMessage();
+					}
+				}
+			}
+			c = skipWhitespace();
+		}
+
+		if (match == initialPosition) {
+			for (int i = 0; i < moveCount; i++) {
+				match.undoMove();
+			}
+		}
+		if (error != null) {
+			throw new ChessException("Game " + gamesRead + ": " + error);
+		}
+		return new PgnGame(tags, Arrays.copyOf(gameMoves, moveCount), result);
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/** Games from the standard start position reuse one match, rewound after every game. */
+	private ChessMatch startingPosition(Map<String, String> tags) {
+		String fen = tags.get("FEN");
+		return fen == null ? initialPosition : new ChessMatch(fen);
+	}
+
+	private void readTag(Map<String, String> tags) throws IOException {
+		token.setLength(0);
+		int c = skipWhitespace();
+		while (c != EOF && c != '"' && c != ']' && !isWhitespace(c)) {
+			token.append((char) c);
+			c = read();
+		}
+		String name = token.toString();
+		while (c != EOF && c != '"' && c != ']') {
+			c = read();
+		}
+		int length = 0;
+		if (c == '"') {
+			for (c = read(); c != EOF && c != '"'; c = read()) {
+				if (c == '\\') {
+					c = read();
+				}
+				if (length == tagValue.length) {
+					tagValue = Arrays.copyOf(tagValue, length * 2);
+				}
+				tagValue[length++] = (byte) c;
+			}
+			skipPast(']');
+		}
+		tags.put(name, new String(tagValue, 0, length, StandardCharsets.UTF_8));
+	}
+
+	private void readToken(int first) throws IOException {
+		token.setLength(0);
+		token.append((char) first);
+		int c = read();
+		while (c != EOF && !isWhitespace(c) && c != '{' && c != '(' && c != ')' && c != ';' && c != '[') {
+			token.append((char) c);
+			c = read();
+		}
+		if (c != EOF && !isWhitespace(c)) {
+			pushedBack = c;
+		}
+	}
+
+	/** Index where the SAN starts after a move number such as "12." or "12...", which may be glued to it. */
+	private static int skipMoveNumber(CharSequence text) {
+		int i = 0;
+		while (i < text.length() && Character.isDigit(text.charAt(i))) {
+			i++;
+		}
+		if (i == 0 || i == text.length() || text.charAt(i) != '.') {
+			// Só é número de lance se vier seguido de ponto
+			return i == text.length() ? i : 0;
+		}
+		while (i < text.length() && text.charAt(i) == '.') {
+			i++;
+		}
+		return i;
+	}
+
+	private static boolean isResult(CharSequence text) {
+		return contentEquals(text, "1-0") || contentEquals(text, "0-1") || contentEquals(text, "1/2-1/2")
+				|| contentEquals(text, "*");
+	}
+
+	private static boolean contentEquals(CharSequence text, String value) {
+		if (text.length() != value.length()) {
+			return false;
+		}
+		for (int i = 0; i < value.length(); i++) {
+			if (text.charAt(i) != value.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void skipVariation() throws IOException {
+		int depth = 1;
+		int c;
+		while (depth > 0 && (c = read()) != EOF) {
+			if (c == '(') {
+				depth++;
+			} else if (c == ')') {
+				depth--;
+			} else if (c == '{') {
+				skipPast('}');
+			} else if (c == ';') {
+				skipPast('\n');
+			}
+		}
+	}
+
+	private void skipPast(int end) throws IOException {
+		int c;
+		do {
+			c = read();
+		} while (c != EOF && c != end);
+	}
+
+	private int skipWhitespace() throws IOException {
+		int c;
+		do {
+			c = read();
+		} while (c != EOF && isWhitespace(c));
+		return c;
+	}
+
+	private int read() throws IOException {
+		if (pushedBack != EOF) {
+			int c = pushedBack;
+			pushedBack = EOF;
+			return c;
+		}
+		if (position == limit && !fill()) {
+			return EOF;
+		}
+		int c = bytes[position++] & 0xFF;
+		lineStart = afterNewline;
+		afterNewline = c == '\n';
+		return c;
+	}
+
+	private boolean fill() throws IOException {
+		buffer.clear();
+		int read;
+		do {
+			read = channel.read(buffer);
+		} while (read == 0);
+		if (read < 0) {
+			return false;
+		}
+		position = 0;
+		limit = read;
+		return true;
+	}
+
+	private static boolean isWhitespace(int c) {
+		return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\f';
+	}
+}
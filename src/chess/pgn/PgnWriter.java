@@ -0,0 +1,88 @@
+package chess.pgn;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import chess.ChessMatch;
+import chess.Color;
+import chess.Move;
+
+/**
+ * Writes {@link PgnGame}s as PGN: tag pairs in the game's order, then the
+ * movetext in SAN with move numbers, wrapped before 80 columns, and the
+ * result.
+ */
+public class PgnWriter implements Closeable, Flushable {
+
+	private static final int MAX_LINE_LENGTH = 79;
+
+	private final Writer out;
+	private final int[] buffer = new int[Move.MAX_MOVES];
+	private final StringBuilder line = new StringBuilder(MAX_LINE_LENGTH + 16);
+
+	public PgnWriter(Writer out) {
+		this.out = out;
+	}
+
+	public PgnWriter(Path path) throws IOException {
+		this(Files.newBufferedWriter(path, StandardCharsets.UTF_8));
+	}
+
+	public void write(PgnGame game) throws IOException {
+		for (Map.Entry<String, String> tag : game.getTags().entrySet()) {
+			out.write('[');
+			out.write(tag.getKey());
+			out.write(" \"");
+			out.write(tag.getValue().replace("\\", "\\\\").replace("\"", "\\\""));
+			out.write("\"]\n");
+		}
+		if (!game.getTags().containsKey("Result")) {
+			out.write("[Result \"" + game.getResult() + "\"]\n");
+		}
+		out.write('\n');
+
+		ChessMatch match = game.startingPosition();
+		line.setLength(0);
+		for (int i = 0; i < game.getMoveCount(); i++) {
+			int move = game.getMove(i);
+			boolean white = match.getCurrentPlayer() == Color.WHITE;
+			if (white || i == 0) {
+				// turn conta meias-jogadas a partir de 1
+				appendWord((match.getTurn() + 1) / 2 + (white ? "." : "..."));
+			}
+			appendWord(San.toSan(match, move, buffer));
+			match.makeMove(move);
+		}
+		appendWord(game.getResult());
+		out.write(line.toString());
+		out.write("\n\n");
+	}
+
+	@Override
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+
+	private void appendWord(String word) throws IOException {
+		if (line.length() > 0 && line.length() + 1 + word.length() > MAX_LINE_LENGTH) {
+			out.write(line.toString());
+			out.write('\n');
+			line.setLength(0);
+		}
+		if (line.length() > 0) {
+			line.append(' ');
+		}
+		line.append(word);
+	}
+}
@@ -0,0 +1,256 @@
+package chess.pgn;
+
+import chess.ChessMatch;
+import chess.Color;
+import chess.Move;
+import chess.PieceType;
+import chess.bitboard.Attacks;
+import chess.bitboard.BitboardPosition;
+import chess.bitboard.Bitboards;
+import chess.exceptions.ChessException;
+
+/**
+ * Standard Algebraic Notation ("Nbd7", "exd5", "e8=Q+", "O-O") for moves
+ * packed as in {@link Move}, always relative to a {@link ChessMatch}'s
+ * current position. Parsing works on any {@link CharSequence} so readers can
+ * reuse one buffer instead of creating a String per move.
+ */
+public final class San {
+
+	private static final long[] COLUMN_AND_NEIGHBOURS = new long[Bitboards.SIZE];
+
+	static {
+		long firstColumn = 0x0101010101010101L;
+		for (int column = 0; column < Bitboards.SIZE; column++) {
+			long mask = firstColumn << column;
+			if (column > 0) {
+				mask |= firstColumn << (column - 1);
+			}
+			if (column < Bitboards.SIZE - 1) {
+				mask |= firstColumn << (column + 1);
+			}
+			COLUMN_AND_NEIGHBOURS[column] = mask;
+		}
+	}
+
+	private San() {
+	}
+
+	/**
+	 * The legal move of the current player written as {@code san}. Check and
+	 * annotation suffixes ("+", "#", "!", "?") are ignored, and castling may be
+	 * written with zeros.
+	 */
+	public static int parse(ChessMatch match, CharSequence san, int[] buffer) {
+		int end = san.length();
+		while (end > 0 && isSuffix(san.charAt(end - 1))) {
+			end--;
+		}
+		if (end < 2) {
+			throw invalid(san);
+		}
+		if (isCastling(san, end)) {
+			return findCastling(match, san, end == 3 ? Move.KING_CASTLE : Move.QUEEN_CASTLE, buffer);
+		}
+
+		// Promoção com ou sem '=': "e8=Q" ou "e8Q"
+		PieceType promotion = null;
+		char last = san.charAt(end - 1);
+		if (san.charAt(end - 2) == '=' || (isPromotionLetter(last) && !Character.isUpperCase(san.charAt(0)))) {
+			if (!isPromotionLetter(last)) {
+				throw invalid(san);
+			}
+			promotion = PieceType.fromLetter(last);
+			end -= san.charAt(end - 2) == '=' ? 2 : 1;
+		}
+
+		int start = 0;
+		PieceType type = PieceType.PAWN;
+		if (Character.isUpperCase(san.charAt(0))) {
+			type = PieceType.fromLetter(san.charAt(0));
+			if (type == null || type == PieceType.PAWN) {
+				throw invalid(san);
+			}
+			start = 1;
+		}
+		if (end - start < 2) {
+			throw invalid(san);
+		}
+		int target = square(san.charAt(end - 2), san.charAt(end - 1));
+		if (target == Bitboards.NO_SQUARE) {
+			throw invalid(san);
+		}
+
+		// O que sobra entre a peça e o destino é desambiguação e o 'x' de captura
+		int fromColumn = -1;
+		int fromRow = -1;
+		for (int i = start; i < end - 2; i++) {
+			char c = san.charAt(i);
+			if (c >= 'a' && c <= 'h') {
+				fromColumn = c - 'a';
+			} else if (c >= '1' && c <= '8') {
+				fromRow = Bitboards.SIZE - (c - '0');
+			} else if (c != 'x' && c != ':' && c != '-') {
+				throw invalid(san);
+			}
+		}
+
+		long sources = candidateSources(match.getBitboards(), match.getCurrentPlayer(), type, target);
+		int count = match.generateLegalMoves(sources, buffer);
+		int found = Move.NONE;
+		for (int i = 0; i < count; i++) {
+			int move = buffer[i];
+			int from = Move.from(move);
+			if (Move.to(move) != target || Move.isCastling(move) || Move.promotionType(move) != promotion
+					|| (fromColumn >= 0 && Bitboards.column(from) != fromColumn)
+					|| (fromRow >= 0 && Bitboards.row(from) != fromRow)) {
+				continue;
+			}
+			if (found != Move.NONE) {
+				throw new ChessException("Ambiguous move " + san);
+			}
+			found = move;
+		}
+		if (found == Move.NONE) {
+			throw new ChessException("Illegal move " + san);
+		}
+		return found;
+	}
+
+	/** SAN of a legal move of the current player, with "+" or "#" when it gives check or mate. */
+	public static String toSan(ChessMatch match, int move, int[] buffer) {
+		StringBuilder san = new StringBuilder(8);
+		int from = Move.from(move);
+		int to = Move.to(move);
+		BitboardPosition bitboards = match.getBitboards();
+		PieceType type = bitboards.getPieceType(from);
+
+		if (Move.isCastling(move)) {
+			san.append(Move.flags(move) == Move.KING_CASTLE ? "O-O" : "O-O-O");
+		} else if (type == PieceType.PAWN) {
+			if (Move.isCapture(move)) {
+				san.append(Move.squareName(from).charAt(0)).append('x');
+			}
+			san.append(Move.squareName(to));
+			if (Move.isPromotion(move)) {
+				san.append('=').append(Move.promotionType(move).getLetter());
+			}
+		} else {
+			san.append(type.getLetter());
+			appendDisambiguation(san, match, move, type, buffer);
+			if (Move.isCapture(move)) {
+				san.append('x');
+			}
+			san.append(Move.squareName(to));
+		}
+
+		match.makeMove(move);
+		if (match.isKingInCheck(match.getCurrentPlayer())) {
+			san.append(match.generateLegalMoves(buffer) == 0 ? '#' : '+');
+		}
+		match.undoMove();
+		return san.toString();
+	}
+
+	/**
+	 * Pieces of {@code type} that could reach {@code target}, found by looking
+	 * back from the target, so only their moves need to be generated.
+	 */
+	private static long candidateSources(BitboardPosition bitboards, Color color, PieceType type, int target) {
+		long pieces = bitboards.getPieces(color, type);
+		long occupied = bitboards.getAllPieces();
+		switch (type) {
+		case KNIGHT:
+			return pieces & Attacks.knight(target);
+		case BISHOP:
+			return pieces & Attacks.bishop(target, occupied);
+		case ROOK:
+			return pieces & Attacks.rook(target, occupied);
+		case QUEEN:
+			return pieces & Attacks.queen(target, occupied);
+		case PAWN:
+			// Peões vêm da mesma coluna ou de uma coluna vizinha
+			return pieces & COLUMN_AND_NEIGHBOURS[Bitboards.column(target)];
+		default:
+			return pieces;
+		}
+	}
+
+	/** File if it tells the pieces apart, otherwise rank, otherwise both. */
+	private static void appendDisambiguation(StringBuilder san, ChessMatch match, int move, PieceType type,
+			int[] buffer) {
+		int from = Move.from(move);
+		long others = candidateSources(match.getBitboards(), match.getCurrentPlayer(), type, Move.to(move))
+				& ~Bitboards.bit(from);
+		if (others == 0) {
+			return;
+		}
+		boolean ambiguous = false;
+		boolean sameColumn = false;
+		boolean sameRow = false;
+		int count = match.generateLegalMoves(others, buffer);
+		for (int i = 0; i < count; i++) {
+			int other = Move.from(buffer[i]);
+			if (Move.to(buffer[i]) != Move.to(move)) {
+				continue;
+			}
+			ambiguous = true;
+			sameColumn |= Bitboards.column(other) == Bitboards.column(from);
+			sameRow |= Bitboards.row(other) == Bitboards.row(from);
+		}
+		if (!ambiguous) {
+			return;
+		}
+		String square = Move.squareName(from);
+		if (!sameColumn) {
+			san.append(square.charAt(0));
+		} else if (!sameRow) {
+			san.append(square.charAt(1));
+		} else {
+			san.append(square);
+		}
+	}
+
+	private static int findCastling(ChessMatch match, CharSequence san, int flags, int[] buffer) {
+		int count = match.generateLegalMoves(buffer);
+		for (int i = 0; i < count; i++) {
+			if (Move.flags(buffer[i]) == flags) {
+				return buffer[i];
+			}
+		}
+		throw new ChessException("Illegal move " + san);
+	}
+
+	private static boolean isCastling(CharSequence san, int end) {
+		if (end != 3 && end != 5) {
+			return false;
+		}
+		for (int i = 0; i < end; i++) {
+			char c = san.charAt(i);
+			boolean expected = (i % 2 == 1) ? c == '-' : (c == 'O' || c == '0');
+			if (!expected) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isPromotionLetter(char c) {
+		return c == 'Q' || c == 'R' || c == 'B' || c == 'N';
+	}
+
+	private static boolean isSuffix(char c) {
+		return c == '+' || c == '#' || c == '!' || c == '?';
+	}
+
+	private static int square(char file, char rank) {
+		if (file < 'a' || file > 'h' || rank < '1' || rank > '8') {
+			return Bitboards.NO_SQUARE;
+		}
+		return Bitboards.square(Bitboards.SIZE - (rank - '0'), file - 'a');
+	}
+
+	private static ChessException invalid(CharSequence san) {
+		return new ChessException("Invalid SAN move " + san);
+	}
+}
@@ -1,24 +1,17 @@
 package chess.pieces;
 
-import boardgame.Board;
-import boardgame.Position;
+import chess.CastlingRights;
+import chess.ChessBoard;
 import chess.ChessMatch;
 import chess.ChessPiece;
 import chess.Color;
+import chess.Move;
+import chess.PieceType;
+import chess.bitboard.Attacks;
+import chess.bitboard.Bitboards;
 
 public class King extends ChessPiece {
     
-    private static final int[][] KING_MOVES = {
-        {-1, 0},  // cima
-        {1, 0},   // abaixo
-        {0, -1},  // esquerda
-        {0, 1},   // direita
-        {-1, -1}, // diagonal esquerda cima
-        {-1, 1},  // diagonal direita cima
-        {1, -1},  // diagonal esquerda baixo
-        {1, 1}    // diagonal direita baixo
-    };
-    
     private static final int KINGSIDE_ROOK_OFFSET = 3;
     private static final int QUEENSIDE_ROOK_OFFSET = -4;
     private static final int KINGSIDE_CASTLE_OFFSET = 2;
@@ -26,141 +19,91 @@ public class King extends ChessPiece {
     
     private final ChessMatch chessMatch;
     
-    public King(Board board, Color color, ChessMatch chessMatch) {
+    public King(ChessBoard board, Color color, ChessMatch chessMatch) {
         super(board, color);
         this.chessMatch = chessMatch;
     }
     
+    @Override
+    public PieceType getType() {
+        return PieceType.KING;
+    }
+    
     @Override
     public String toString() {
         return "K";
     }
     
     @Override
-    public boolean[][] possibleMoves() {
-        boolean[][] moves = createEmptyMovesMatrix();
+    public int generateMoves(int[] moves, int count, long targetMask) {
+        count = addMoves(moves, count, regularTargets() & targetMask);
         
-        addRegularKingMoves(moves);
-        addCastlingMovesIfPossible(moves);
-        
-        return moves;
-    }
-    
-    private boolean[][] createEmptyMovesMatrix() {
-        return new boolean[getBoard().getRows()][getBoard().getColumns()];
-    }
-    
-    private void addRegularKingMoves(boolean[][] moves) {
-        for (int[] move : KING_MOVES) {
-            Position targetPosition = calculateNewPosition(move[0], move[1]);
-            
-            if (isValidKingMove(targetPosition)) {
-                markAsValidMove(moves, targetPosition);
-            }
-        }
-    }
-    
-    private Position calculateNewPosition(int rowOffset, int columnOffset) {
-        return new Position(
-            position.getRow() + rowOffset, 
-            position.getColumn() + columnOffset
-        );
+        return addCastlingMovesIfPossible(moves, count, targetMask);
     }
     
-    private boolean isValidKingMove(Position targetPosition) {
-        return canMoveToEmptySquare(targetPosition) || canCaptureOpponentPiece(targetPosition);
+    private long regularTargets() {
+        return Attacks.king(getSquare()) & ~getOwnPieces();
     }
     
-    private void addCastlingMovesIfPossible(boolean[][] moves) {
+    private int addCastlingMovesIfPossible(int[] moves, int count, long targetMask) {
         if (!canCastle()) {
-            return;
+            return count;
         }
         
-        addKingsideCastlingIfPossible(moves);
-        addQueensideCastlingIfPossible(moves);
+        count = addKingsideCastlingIfPossible(moves, count, targetMask);
+        return addQueensideCastlingIfPossible(moves, count, targetMask);
     }
     
     private boolean canCastle() {
-        return hasNeverMoved() && !isInCheck();
+        return hasCastlingRights(CastlingRights.kingside(getColor()) | CastlingRights.queenside(getColor()));
     }
     
-    private boolean hasNeverMoved() {
-        return getMoveCount() == 0;
+    private boolean hasCastlingRights(int rights) {
+        return (chessMatch.getCastlingRights() & rights) != 0;
     }
     
-    private boolean isInCheck() {
-        return chessMatch.getCheck();
-    }
-    
-    private void addKingsideCastlingIfPossible(boolean[][] moves) {
-        Position rookPosition = calculateNewPosition(0, KINGSIDE_ROOK_OFFSET);
-        
-        if (canCastleWith(rookPosition)) {
-            Position[] pathPositions = {
-                calculateNewPosition(0, 1),
-                calculateNewPosition(0, 2)
-            };
-            
-            if (isPathClearForCastling(pathPositions)) {
-                Position castlePosition = calculateNewPosition(0, KINGSIDE_CASTLE_OFFSET);
-                markAsValidMove(moves, castlePosition);
-            }
+    private int addKingsideCastlingIfPossible(int[] moves, int count, long targetMask) {
+        if (hasCastlingRights(CastlingRights.kingside(getColor())) && canCastleWith(KINGSIDE_ROOK_OFFSET)
+            && isPathClearForCastling(1, KINGSIDE_ROOK_OFFSET - 1)
+            && isKingPathAllowed(KINGSIDE_CASTLE_OFFSET, targetMask)) {
+            moves[count++] = Move.of(getSquare(), getSquare() + KINGSIDE_CASTLE_OFFSET, Move.KING_CASTLE);
         }
+        return count;
     }
     
-    private void addQueensideCastlingIfPossible(boolean[][] moves) {
-        Position rookPosition = calculateNewPosition(0, QUEENSIDE_ROOK_OFFSET);
-        
-        if (canCastleWith(rookPosition)) {
-            Position[] pathPositions = {
-                calculateNewPosition(0, -1),
-                calculateNewPosition(0, -2),
-                calculateNewPosition(0, -3)
-            };
-            
-            if (isPathClearForCastling(pathPositions)) {
-                Position castlePosition = calculateNewPosition(0, QUEENSIDE_CASTLE_OFFSET);
-                markAsValidMove(moves, castlePosition);
-            }
+    private int addQueensideCastlingIfPossible(int[] moves, int count, long targetMask) {
+        if (hasCastlingRights(CastlingRights.queenside(getColor())) && canCastleWith(QUEENSIDE_ROOK_OFFSET)
+            && isPathClearForCastling(QUEENSIDE_ROOK_OFFSET + 1, -1)
+            && isKingPathAllowed(QUEENSIDE_CASTLE_OFFSET, targetMask)) {
+            moves[count++] = Move.of(getSquare(), getSquare() + QUEENSIDE_CASTLE_OFFSET, Move.QUEEN_CASTLE);
         }
+        return count;
     }
     
-    private boolean canCastleWith(Position rookPosition) {
-        return isValidRookForCastling(rookPosition);
+    private boolean canCastleWith(int rookOffset) {
+        int rookColumn = Bitboards.column(getSquare()) + rookOffset;
+        return rookColumn >= 0 && rookColumn < Bitboards.SIZE && isValidRookForCastling(getSquare() + rookOffset);
     }
     
-    private boolean isPathClearForCastling(Position[] pathPositions) {
-        for (Position pos : pathPositions) {
-            if (hasObstacleAt(pos)) {
+    private boolean isPathClearForCastling(int firstOffset, int lastOffset) {
+        for (int offset = firstOffset; offset <= lastOffset; offset++) {
+            if (getBoard().getBitboards().isOccupied(getSquare() + offset)) {
                 return false;
             }
         }
         return true;
     }
     
-    private boolean hasObstacleAt(Position position) {
-        return getBoard().positionExists(position) && getBoard().thereIsAPiece(position);
-    }
-    
-    private boolean canMoveToEmptySquare(Position position) {
-        return getBoard().positionExists(position) && 
-               !getBoard().thereIsAPiece(position);
-    }
-    
-    private boolean canCaptureOpponentPiece(Position position) {
-        return getBoard().positionExists(position) && 
-               isThereOpponentPiece(position);
-    }
-    
-    private void markAsValidMove(boolean[][] moves, Position position) {
-        moves[position.getRow()][position.getColumn()] = true;
+    private boolean isKingPathAllowed(int castleOffset, long targetMask) {
+        // A casa atravessada fica no meio do caminho do rei
+        return Bitboards.contains(targetMask, getSquare() + castleOffset / 2)
+               && Bitboards.contains(targetMask, getSquare() + castleOffset);
     }
     
-    private boolean isValidRookForCastling(Position rookPosition) {
-        ChessPiece piece = (ChessPiece) getBoard().getPiece(rookPosition);
+    private boolean isValidRookForCastling(int rookSquare) {
+        ChessPiece piece = getBoard().getPiece(rookSquare);
         return piece != null && 
                piece instanceof Rook && 
-               piece.getColor() == getColor() && 
-               piece.getMoveCount() == 0;
+               piece.getColor() == getColor();
     }
-}
\ No newline at end of file
+}
@@ -1,121 +1,120 @@
 package chess.pieces;
 
-import boardgame.Board;
-import boardgame.Position;
+import chess.ChessBoard;
 import chess.ChessMatch;
 import chess.ChessPiece;
 import chess.Color;
+import chess.Move;
+import chess.PieceType;
+import chess.bitboard.Attacks;
+import chess.bitboard.Bitboards;
 
 public class Pawn extends ChessPiece {
     
+    private static final int WHITE_STARTING_ROW = 6;
+    private static final int BLACK_STARTING_ROW = 1;
+    private static final int WHITE_PROMOTION_ROW = 0;
+    private static final int BLACK_PROMOTION_ROW = 7;
+    private static final int WHITE_EN_PASSANT_TARGET_ROW = 2;
+    private static final int BLACK_EN_PASSANT_TARGET_ROW = 5;
+    
     private final ChessMatch chessMatch;
     
-    public Pawn(Board board, Color color, ChessMatch chessMatch) {
+    public Pawn(ChessBoard board, Color color, ChessMatch chessMatch) {
         super(board, color);
         this.chessMatch = chessMatch;
     }
     
+    @Override
+    public PieceType getType() {
+        return PieceType.PAWN;
+    }
+    
     @Override
     public String toString() {
         return "P";
     }
     
     @Override
-    public boolean[][] possibleMoves() {
-        boolean[][] moves = new boolean[getBoard().getRows()][getBoard().getColumns()];
-        
-        addForwardMoves(moves);
-        addDiagonalCaptures(moves);
-        addEnPassantCaptures(moves);
-        
-        return moves;
+    public int generateMoves(int[] moves, int count, long targetMask) {
+        count = addForwardMoves(moves, count, targetMask);
+        count = addDiagonalCaptures(moves, count, targetMask);
+        return addEnPassantCaptures(moves, count);
     }
     
-    private void addForwardMoves(boolean[][] moves) {
-        int direction = getPawnDirection();
+    private int addForwardMoves(int[] moves, int count, long targetMask) {
+        int forward = getForwardOffset();
         
         // Movimento de uma casa para frente
-        Position oneSquareForward = new Position(position.getRow() + direction, position.getColumn());
-        if (canMoveToEmptySquare(oneSquareForward)) {
-            markAsValidMove(moves, oneSquareForward);
-            
-            // Movimento inicial de duas casas
-            if (isFirstMove()) {
-                Position twoSquaresForward = new Position(position.getRow() + 2 * direction, position.getColumn());
-                if (canMoveToEmptySquare(twoSquaresForward)) {
-                    markAsValidMove(moves, twoSquaresForward);
-                }
-            }
+        int oneSquareForward = getSquare() + forward;
+        if (isOccupied(oneSquareForward)) {
+            return count;
         }
-    }
-    
-    private void addDiagonalCaptures(boolean[][] moves) {
-        int direction = getPawnDirection();
-        
-        // Captura diagonal direita
-        Position rightDiagonal = new Position(position.getRow() + direction, position.getColumn() + 1);
-        if (canCaptureAt(rightDiagonal)) {
-            markAsValidMove(moves, rightDiagonal);
+        if (Bitboards.contains(targetMask, oneSquareForward)) {
+            count = addPawnMove(moves, count, oneSquareForward, false);
         }
         
-        // Captura diagonal esquerda
-        Position leftDiagonal = new Position(position.getRow() + direction, position.getColumn() - 1);
-        if (canCaptureAt(leftDiagonal)) {
-            markAsValidMove(moves, leftDiagonal);
+        // Movimento inicial de duas casas
+        if (isOnStartingRow()) {
+            int twoSquaresForward = oneSquareForward + forward;
+            if (!isOccupied(twoSquaresForward) && Bitboards.contains(targetMask, twoSquaresForward)) {
+                moves[count++] = Move.of(getSquare(), twoSquaresForward, Move.DOUBLE_PAWN_PUSH);
+            }
         }
+        return count;
     }
     
-    private void addEnPassantCaptures(boolean[][] moves) {
-        if (!isInEnPassantRank()) {
-            return;
-        }
-    	
-    	int direction = getPawnDirection();
-        
-        // En passant à direita
-        Position rightAdjacent = new Position(position.getRow(), position.getColumn() + 1);
-        if (canCaptureEnPassantAt(rightAdjacent)) {
-            Position captureSquare = new Position(rightAdjacent.getRow() + direction, rightAdjacent.getColumn());
-            markAsValidMove(moves, captureSquare);
-        }
+    private int addDiagonalCaptures(int[] moves, int count, long targetMask) {
+        long captures = Attacks.pawn(getColor(), getSquare()) & getOpponentPieces() & targetMask;
         
-        // En passant à esquerda
-        Position leftAdjacent = new Position(position.getRow(), position.getColumn() - 1);
-        if (canCaptureEnPassantAt(leftAdjacent)) {
-            Position captureSquare = new Position(leftAdjacent.getRow() + direction, leftAdjacent.getColumn());
-            markAsValidMove(moves, captureSquare);
+        while (captures != 0) {
+            count = addPawnMove(moves, count, Bitboards.firstSquare(captures), true);
+            captures = Bitboards.withoutFirstSquare(captures);
         }
+        return count;
     }
     
-    private boolean isInEnPassantRank() {
-        // Peão branco deve estar na linha 3 (índice), peão preto na linha 4
-        return (getColor() == Color.WHITE && position.getRow() == 3) ||
-               (getColor() == Color.BLACK && position.getRow() == 4);
+    private int addEnPassantCaptures(int[] moves, int count) {
+        int target = chessMatch.getEnPassantSquare();
+        if (target == Bitboards.NO_SQUARE || Bitboards.row(target) != getEnPassantTargetRow()
+            || !Bitboards.contains(Attacks.pawn(getColor(), getSquare()), target)) {
+            return count;
+        }
+        
+        moves[count++] = Move.of(getSquare(), target, Move.EN_PASSANT);
+        return count;
     }
     
-    private int getPawnDirection() {
-        return (getColor() == Color.WHITE) ? -1 : 1;
+    private int addPawnMove(int[] moves, int count, int target, boolean capture) {
+        if (Bitboards.row(target) != getPromotionRow()) {
+            moves[count++] = Move.of(getSquare(), target, capture ? Move.CAPTURE : Move.QUIET);
+            return count;
+        }
+        moves[count++] = Move.of(getSquare(), target, Move.promotionFlags(PieceType.QUEEN, capture));
+        moves[count++] = Move.of(getSquare(), target, Move.promotionFlags(PieceType.ROOK, capture));
+        moves[count++] = Move.of(getSquare(), target, Move.promotionFlags(PieceType.BISHOP, capture));
+        moves[count++] = Move.of(getSquare(), target, Move.promotionFlags(PieceType.KNIGHT, capture));
+        return count;
     }
     
-    private boolean isFirstMove() {
-        return getMoveCount() == 0;
+    private boolean isOnStartingRow() {
+        int startingRow = (getColor() == Color.WHITE) ? WHITE_STARTING_ROW : BLACK_STARTING_ROW;
+        return Bitboards.row(getSquare()) == startingRow;
     }
     
-    private boolean canMoveToEmptySquare(Position pos) {
-        return getBoard().positionExists(pos) && !getBoard().thereIsAPiece(pos);
+    private int getPromotionRow() {
+        return (getColor() == Color.WHITE) ? WHITE_PROMOTION_ROW : BLACK_PROMOTION_ROW;
     }
     
-    private boolean canCaptureAt(Position pos) {
-        return getBoard().positionExists(pos) && isThereOpponentPiece(pos);
+    private int getEnPassantTargetRow() {
+        return (getColor() == Color.WHITE) ? WHITE_EN_PASSANT_TARGET_ROW : BLACK_EN_PASSANT_TARGET_ROW;
     }
     
-    private boolean canCaptureEnPassantAt(Position pos) {
-        return getBoard().positionExists(pos) 
-            && isThereOpponentPiece(pos) 
-            && getBoard().getPiece(pos) == chessMatch.getEnPassantVulnerable();
+    private int getForwardOffset() {
+        return (getColor() == Color.WHITE) ? -Bitboards.SIZE : Bitboards.SIZE;
     }
     
-    private void markAsValidMove(boolean[][] moves, Position pos) {
-        moves[pos.getRow()][pos.getColumn()] = true;
+    private boolean isOccupied(int square) {
+        return getBoard().getBitboards().isOccupied(square);
     }
-}
\ No newline at end of file
+}
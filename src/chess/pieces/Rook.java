@@ -1,69 +1,34 @@
 package chess.pieces;
 
-import boardgame.Board;
-import boardgame.Position;
+import chess.ChessBoard;
 import chess.ChessPiece;
 import chess.Color;
+import chess.PieceType;
+import chess.bitboard.Attacks;
 
 public class Rook extends ChessPiece {
 
-	private static final int[][] ROOK_DIRECTIONS = { { -1, 0 }, // cima
-			{ 1, 0 }, // baixo
-			{ 0, -1 }, // esquerda
-			{ 0, 1 }, // direita
-	};
-
-	public Rook(Board board, Color color) {
+	public Rook(ChessBoard board, Color color) {
 		super(board, color);
 	}
 
 	@Override
-	public String toString() {
-		return "R";
+	public PieceType getType() {
+		return PieceType.ROOK;
 	}
 
 	@Override
-	public boolean[][] possibleMoves() {
-		boolean[][] moves = createEmptyMovesMatrix();
-
-		addRookMoves(moves);
-		return moves;
-	}
-
-	private boolean[][] createEmptyMovesMatrix() {
-		return new boolean[getBoard().getRows()][getBoard().getColumns()];
-	}
-
-	private void addRookMoves(boolean[][] moves) {
-		for (int[] direction : ROOK_DIRECTIONS) {
-			markPossibleMoves(moves, direction[0], direction[1]);
-		}
-	}
-
-	private void markPossibleMoves(boolean[][] moves, int rowDirection, int columnDirection) {
-		Position currentPosition = new Position(position.getRow() + rowDirection,
-				position.getColumn() + columnDirection);
-
-		while (canMoveToEmptySquare(currentPosition)) {
-			markAsValidMove(moves, currentPosition);
-			currentPosition.setValues(currentPosition.getRow() + rowDirection,
-					currentPosition.getColumn() + columnDirection);
-		}
-		if (canCaptureOpponentPiece(currentPosition)) {
-			markAsValidMove(moves, currentPosition);
-		}
-	}
-
-	private boolean canMoveToEmptySquare(Position position) {
-		return getBoard().positionExists(position) && !getBoard().thereIsAPiece(position);
+	public String toString() {
+		return "R";
 	}
 
-	private boolean canCaptureOpponentPiece(Position position) {
-		return getBoard().positionExists(position) && isThereOpponentPiece(position);
+	@Override
+	public int generateMoves(int[] moves, int count, long targetMask) {
+		return addMoves(moves, count, targets() & targetMask);
 	}
 
-	private void markAsValidMove(boolean[][] moves, Position position) {
-		moves[position.getRow()][position.getColumn()] = true;
+	private long targets() {
+		return Attacks.rook(getSquare(), getOccupiedSquares()) & ~getOwnPieces();
 	}
 
 }
@@ -0,0 +1,418 @@
+package chess.uci;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import chess.ChessMatch;
+import chess.Color;
+import chess.Move;
+import chess.archive.OpeningBook;
+import chess.engine.ParallelSearch;
+import chess.engine.Search;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import chess.engine.TranspositionTable;
+import chess.exceptions.ChessException;
+
+/**
+ * Headless Universal Chess Interface front-end. The calling thread only reads
+ * commands, so "stop" and "isready" are answered while a search is running
+ * on its own thread, which prints "bestmove" when it finishes.
+ */
+public class UciEngine {
+
+	private static final String NAME = "chess-java-system";
+	private static final int DEFAULT_HASH_MB = 16;
+	private static final int MAX_HASH_MB = 4096;
+	private static final int MAX_THREADS = 256;
+	// Sem movestogo, supõe que ainda faltam tantos lances
+	private static final int DEFAULT_MOVES_TO_GO = 30;
+	private static final long MOVE_OVERHEAD_MS = 20;
+	private static final String WARM_UP_POSITION = "position startpos moves e2e4 e7e5";
+	private static final int WARM_UP_DEPTH = 4;
+	private static final long STOP_RETRY_MS = 10;
+
+	private final BufferedReader in;
+	private final PrintStream out;
+	private final ExecutorService searchThread = Executors.newSingleThreadExecutor(UciEngine::daemon);
+	private final ExecutorService helperThreads = Executors.newCachedThreadPool(UciEngine::daemon);
+
+	private ChessMatch match = new ChessMatch();
+	private TranspositionTable table = new TranspositionTable(DEFAULT_HASH_MB);
+	private int threads = 1;
+	// Reaproveitada entre buscas; refeita quando Hash ou Threads mudam
+	private ParallelSearch search;
+	private Future<?> running;
+	// Liberado por "stop": só então uma busca infinita pode mandar bestmove
+	private CountDownLatch stopSignal;
+	private OpeningBook book;
+	private final Random bookRandom = new Random();
+	private boolean warmedUp;
+
+	public UciEngine(BufferedReader in, PrintStream out) {
+		this.in = in;
+		this.out = out;
+	}
+
+	/** Reads commands until "quit" or the end of the input. */
+	public void run() throws IOException {
+		String line;
+		while ((line = in.readLine()) != null) {
+			String[] tokens = line.trim().split("\\s+");
+			if (tokens[0].equals("quit")) {
+				break;
+			}
+			try {
+				handle(tokens);
+			} catch (ChessException | IllegalArgumentException e) {
+				out.println("info string " + e.getMessage());
+			} catch (IOException e) {
+				out.println("info string " + e);
+			}
+		}
+		stopSearch();
+		searchThread.shutdownNow();
+		helperThreads.shutdownNow();
+		if (book != null) {
+			book.close();
+		}
+	}
+
+	private void handle(String[] tokens) throws IOException {
+		switch (tokens[0]) {
+		case "uci":
+			out.println("id name " + NAME);
+			out.println("id author gabrielspk");
+			out.println("option name Hash type spin default " + DEFAULT_HASH_MB + " min 1 max " + MAX_HASH_MB);
+			out.println("option name Threads type spin default 1 min 1 max " + MAX_THREADS);
+			out.println("option name BookFile type string default <empty>");
+			warmUp();
+			out.println("uciok");
+			break;
+		case "isready":
+			warmUp();
+			out.println("readyok");
+			break;
+		case "ucinewgame":
+			stopSearch();
+			table.clear();
+			match = new ChessMatch();
+			break;
+		case "setoption":
+			stopSearch();
+			setOption(tokens);
+			break;
+		case "position":
+			stopSearch();
+			// Se a posição for inválida, o próximo go não deve buscar a anterior
+			match = null;
+			match = parsePosition(tokens);
+			break;
+		case "go":
+			stopSearch();
+			go(tokens);
+			break;
+		case "stop":
+		case "ponderhit":
+			// Sem gestão de tempo para o ponder: o acerto encerra a busca com o melhor lance até aqui
+			stopSearch();
+			break;
+		default:
+			// O protocolo manda ignorar comandos desconhecidos
+			break;
+		}
+	}
+
+	private void setOption(String[] tokens) throws IOException {
+		String name = valueAfter(tokens, "name");
+		String value = valueAfter(tokens, "value");
+		if (name == null || value == null) {
+			return;
+		}
+		if (name.equalsIgnoreCase("BookFile")) {
+			// Caminhos podem ter espaços: o valor vai até o fim da linha
+			String path = String.join(" ", Arrays.asList(tokens).subList(indexOf(tokens, "value") + 1,
+					tokens.length));
+			if (book != null) {
+				book.close();
+				book = null;
+			}
+			if (!path.isEmpty() && !path.equals("<empty>")) {
+				book = new OpeningBook(Path.of(path));
+			}
+		} else if (name.equalsIgnoreCase("Hash")) {
+			table = new TranspositionTable(clamp(Integer.parseInt(value), 1, MAX_HASH_MB));
+			search = null;
+		} else if (name.equalsIgnoreCase("Threads")) {
+			threads = clamp(Integer.parseInt(value), 1, MAX_THREADS);
+			search = null;
+		}
+	}
+
+	/** position [startpos | fen &lt;six fields&gt;] [moves &lt;move&gt;...] */
+	private ChessMatch parsePosition(String[] tokens) {
+		int index = 1;
+		ChessMatch position;
+		if (tokens.length > 1 && tokens[1].equals("fen")) {
+			StringBuilder fen = new StringBuilder();
+			for (index = 2; index < tokens.length && !tokens[index].equals("moves"); index++) {
+				fen.append(tokens[index]).append(' ');
+			}
+			position = new ChessMatch(fen.toString().trim());
+		} else {
+			position = new ChessMatch();
+			index = 2;
+		}
+		if (index < tokens.length && tokens[index].equals("moves")) {
+			for (index++; index < tokens.length; index++) {
+				position.makeMove(findMove(position, tokens[index]));
+			}
+		}
+		return position;
+	}
+
+	private int findMove(ChessMatch position, String text) {
+		int[] moves = new int[Move.MAX_MOVES];
+		int count = position.generateLegalMoves(moves);
+		for (int i = 0; i < count; i++) {
+			if (Move.toString(moves[i]).equals(text)) {
+				return moves[i];
+			}
+		}
+		throw new ChessException("Illegal move " + text);
+	}
+
+	/** Every "go" gets a "bestmove", even one that cannot be searched, or the GUI would wait for it forever. */
+	private void go(String[] tokens) {
+		if (match == null) {
+			out.println("info string no valid position");
+			out.println("bestmove 0000");
+			return;
+		}
+		SearchLimits limits = parseLimits(tokens);
+		if (!playBookMove(tokens)) {
+			startSearch(limits);
+		}
+	}
+
+	private SearchLimits parseLimits(String[] tokens) {
+		int depth = Search.MAX_PLY;
+		long nodes = Long.MAX_VALUE;
+		long moveTime = Long.MAX_VALUE;
+		long time = -1;
+		long increment = 0;
+		int movesToGo = DEFAULT_MOVES_TO_GO;
+		boolean infinite = indexOf(tokens, "infinite") >= 0 || indexOf(tokens, "ponder") >= 0;
+		boolean white = match.getCurrentPlayer() == Color.WHITE;
+		for (int i = 1; i + 1 < tokens.length; i++) {
+			switch (tokens[i]) {
+			case "depth":
+				depth = (int) Math.min(Math.max(1, limitValue(tokens[++i], depth)), Search.MAX_PLY);
+				break;
+			case "nodes":
+				nodes = Math.max(1, limitValue(tokens[++i], nodes));
+				break;
+			case "movetime":
+				moveTime = Math.max(1, limitValue(tokens[++i], moveTime));
+				break;
+			case "wtime":
+			case "btime":
+				if (tokens[i].equals(white ? "wtime" : "btime")) {
+					// Algumas interfaces mandam tempo negativo quando o relógio estoura
+					time = Math.max(0, limitValue(tokens[i + 1], time));
+				}
+				i++;
+				break;
+			case "winc":
+			case "binc":
+				if (tokens[i].equals(white ? "winc" : "binc")) {
+					increment = Math.max(0, limitValue(tokens[i + 1], increment));
+				}
+				i++;
+				break;
+			case "movestogo":
+				movesToGo = (int) Math.min(Math.max(1, limitValue(tokens[++i], movesToGo)), Integer.MAX_VALUE);
+				break;
+			default:
+				break;
+			}
+		}
+		if (time >= 0) {
+			// Uma fatia do relógio mais boa parte do incremento, sem passar da metade do que resta
+			long budget = Math.min(time / movesToGo + increment * 3 / 4, time / 2);
+			moveTime = Math.min(moveTime, Math.max(1, budget - MOVE_OVERHEAD_MS));
+		}
+		return new SearchLimits(depth, nodes, moveTime, infinite);
+	}
+
+	/** A malformed number is reported and ignored, keeping the previous value. */
+	private long limitValue(String text, long previous) {
+		try {
+			return Long.parseLong(text);
+		} catch (NumberFormatException e) {
+			out.println("info string ignoring invalid limit " + text);
+			return previous;
+		}
+	}
+
+	/** Answers "go" straight from the book, unless the search must run until "stop". */
+	private boolean playBookMove(String[] tokens) {
+		if (book == null || indexOf(tokens, "infinite") >= 0 || indexOf(tokens, "ponder") >= 0) {
+			return false;
+		}
+		int move = book.pick(match, bookRandom);
+		if (move == Move.NONE) {
+			return false;
+		}
+		out.println("info string book move");
+		out.println("bestmove " + Move.toString(move));
+		return true;
+	}
+
+	private void startSearch(SearchLimits limits) {
+		if (search == null) {
+			search = new ParallelSearch(helperThreads, threads, table);
+			search.setListener(result -> out.println(infoLine(result)));
+		}
+		ParallelSearch parallelSearch = search;
+		ChessMatch position = match;
+		CountDownLatch stopped = new CountDownLatch(1);
+		stopSignal = stopped;
+		running = searchThread.submit(() -> {
+			SearchResult result = null;
+			try {
+				result = parallelSearch.search(position, limits);
+			} catch (RuntimeException e) {
+				out.println("info string search failed: " + e);
+			}
+			if (limits.isInfinite()) {
+				// O protocolo proíbe bestmove antes do stop, mesmo que a busca tenha acabado sozinha
+				try {
+					stopped.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+			out.println(bestMoveLine(result));
+		});
+	}
+
+	/**
+	 * Runs a throwaway "position" and shallow search through the same code as
+	 * a real one, output aside, so the first timed "go" is not charged for
+	 * loading the attack, hashing and evaluation tables, the search classes
+	 * and the JDK's lambda and string concatenation bootstrap.
+	 */
+	private void warmUp() {
+		if (warmedUp) {
+			return;
+		}
+		ChessMatch position = parsePosition(WARM_UP_POSITION.split(" "));
+		ParallelSearch warmUpSearch = new ParallelSearch(helperThreads, 1, new TranspositionTable(1));
+		warmUpSearch.setListener(this::infoLine);
+		finished(searchThread.submit(
+				() -> bestMoveLine(warmUpSearch.search(position, SearchLimits.depth(WARM_UP_DEPTH)))), Long.MAX_VALUE);
+		warmedUp = true;
+	}
+
+	private static String bestMoveLine(SearchResult result) {
+		int bestMove = result == null ? Move.NONE : result.getBestMove();
+		return "bestmove " + (bestMove == Move.NONE ? "0000" : Move.toString(bestMove));
+	}
+
+	private String infoLine(SearchResult result) {
+		StringBuilder info = new StringBuilder("info depth ").append(result.getDepth());
+		if (result.isMate()) {
+			int plies = Search.MATE_SCORE - Math.abs(result.getScore());
+			int moves = (plies + 1) / 2;
+			info.append(" score mate ").append(result.getScore() > 0 ? moves : -moves);
+		} else {
+			info.append(" score cp ").append(result.getScore());
+		}
+		long millis = result.getElapsedMillis();
+		info.append(" nodes ").append(result.getNodes()).append(" time ").append(millis);
+		info.append(" nps ").append(result.getNodes() * 1000 / Math.max(1, millis));
+		info.append(" hashfull ").append(table.hashfull()).append(" pv");
+		for (int move : result.getPrincipalVariation()) {
+			info.append(' ').append(Move.toString(move));
+		}
+		return info.toString();
+	}
+
+	private void stopSearch() {
+		if (stopSignal != null) {
+			stopSignal.countDown();
+		}
+		if (running != null) {
+			// A busca esquece um stop que chega antes de ela começar: repete até a tarefa acabar
+			do {
+				search.stop();
+			} while (!finished(running, STOP_RETRY_MS));
+		}
+		waitForSearch();
+	}
+
+	private static boolean finished(Future<?> task, long timeoutMillis) {
+		try {
+			task.get(timeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			return false;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			// waitForSearch informa a falha
+		}
+		return true;
+	}
+
+	private void waitForSearch() {
+		if (running == null) {
+			return;
+		}
+		try {
+			running.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			out.println("info string search failed: " + e.getCause());
+		}
+		running = null;
+		stopSignal = null;
+	}
+
+	private static String valueAfter(String[] tokens, String key) {
+		int index = indexOf(tokens, key);
+		return index >= 0 && index + 1 < tokens.length ? tokens[index + 1] : null;
+	}
+
+	private static int indexOf(String[] tokens, String key) {
+		for (int i = 0; i < tokens.length; i++) {
+			if (tokens[i].equals(key)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static int clamp(int value, int min, int max) {
+		return Math.max(min, Math.min(max, value));
+	}
+
+	private static Thread daemon(Runnable task) {
+		Thread thread = new Thread(task, "uci-search");
+		thread.setDaemon(true);
+		return thread;
+	}
+}